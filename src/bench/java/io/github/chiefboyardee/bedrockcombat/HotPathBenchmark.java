@@ -0,0 +1,174 @@
+package io.github.chiefboyardee.bedrockcombat;
+
+import io.github.chiefboyardee.bedrockcombat.config.ConfigManager;
+import io.github.chiefboyardee.bedrockcombat.integrations.IntegrationManager;
+import io.github.chiefboyardee.bedrockcombat.pvp.PvPDetectionSystem;
+import io.github.chiefboyardee.bedrockcombat.ui.ActionBarManager;
+import org.bukkit.damage.DamageSource;
+import org.bukkit.damage.DamageType;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event handlers and lookups that run on every hit, swing or refresh,
+ * driven through a real plugin instance enabled on {@link StandInServer}.
+ * Run with the gc profiler (the bench profile default) to see allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathBenchmark {
+    
+    @Param({"20", "200"})
+    public int players;
+    
+    private StandInServer server;
+    private BedrockCombatPlugin plugin;
+    private ConfigManager configManager;
+    private IntegrationManager integrationManager;
+    private PvPDetectionSystem pvpDetectionSystem;
+    private ActionBarManager actionBarManager;
+    
+    private Player[] online;
+    private EntityDamageByEntityEvent[] hits;
+    private PlayerInteractEvent[] swings;
+    private int cursor;
+    
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        server = StandInServer.get();
+        server.reset();
+        plugin = server.enablePlugin();
+        configManager = plugin.getConfigManager();
+        integrationManager = plugin.getIntegrationManager();
+        pvpDetectionSystem = plugin.getPvPDetectionSystem();
+        actionBarManager = plugin.getActionBarManager();
+        
+        // Every other player has the Floodgate prefix, so half are Bedrock players
+        online = new Player[players];
+        for (int i = 0; i < players; i++) {
+            String name = (i % 2 == 0 ? "." : "") + "Player" + i;
+            online[i] = server.addPlayer(name, (i % 10) * 4.0, (i / 10) * 4.0);
+            plugin.onPlayerJoin(new PlayerJoinEvent(online[i], null));
+        }
+        server.tick();
+        
+        // Pair neighbours: each hit is a Bedrock/Java fight
+        hits = new EntityDamageByEntityEvent[players];
+        swings = new PlayerInteractEvent[players];
+        for (int i = 0; i < players; i++) {
+            Player attacker = online[i];
+            Player victim = online[opponentOf(i)];
+            DamageSource source = DamageSource.builder(DamageType.PLAYER_ATTACK)
+                .withCausingEntity(attacker)
+                .withDirectEntity(attacker)
+                .build();
+            hits[i] = new EntityDamageByEntityEvent(attacker, victim, EntityDamageEvent.DamageCause.ENTITY_ATTACK, source, 1.0);
+            swings[i] = new PlayerInteractEvent(attacker, Action.LEFT_CLICK_AIR, null, null, null);
+        }
+        
+        // Tag everyone so swings take the full path
+        for (EntityDamageByEntityEvent hit : hits) {
+            plugin.onPlayerDamagePlayer(hit);
+        }
+        server.tick();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        plugin.onDisable();
+        server.reset();
+    }
+    
+    /**
+     * One server tick of combat bookkeeping, so pending work doesn't pile up between iterations
+     */
+    @TearDown(Level.Iteration)
+    public void tick() {
+        server.tick();
+    }
+    
+    @Benchmark
+    public void onPlayerDamagePlayer() {
+        plugin.onPlayerDamagePlayer(hits[next()]);
+    }
+    
+    @Benchmark
+    public void onPlayerInteract() {
+        plugin.getSwingListener().onPlayerInteract(swings[next()]);
+    }
+    
+    @Benchmark
+    public boolean isBedrockPlayer() {
+        return integrationManager.isBedrockPlayer(online[next()]);
+    }
+    
+    @Benchmark
+    public void updatePlayerActionBar() {
+        actionBarManager.updatePlayerActionBar(online[next()]);
+    }
+    
+    @Benchmark
+    public void recordPvPEvent() {
+        int index = next();
+        pvpDetectionSystem.recordPvPEvent(online[index], online[opponentOf(index)]);
+    }
+    
+    /**
+     * The getters read by handlers on every event
+     */
+    @Benchmark
+    public void configGetters(Blackhole blackhole) {
+        blackhole.consume(configManager.isPvpDetectionEnabled());
+        blackhole.consume(configManager.getPvpTimeout());
+        blackhole.consume(configManager.isActionBarEnabled());
+        blackhole.consume(configManager.showCombatModeInActionBar());
+        blackhole.consume(configManager.getFloodgatePrefix());
+    }
+    
+    /**
+     * Same settings read by YAML path, as the getters did before the config snapshot
+     */
+    @Benchmark
+    public void configPathLookups(Blackhole blackhole) {
+        blackhole.consume(plugin.getConfig().getBoolean("pvp.detection.enabled", true));
+        blackhole.consume(plugin.getConfig().getInt("pvp.detection.timeout", 10));
+        blackhole.consume(plugin.getConfig().getBoolean("ui.actionbar.enabled", true));
+        blackhole.consume(plugin.getConfig().getBoolean("ui.actionbar.show-combat-mode", true));
+        blackhole.consume(plugin.getConfig().getString("detection.floodgate.prefix", "."));
+    }
+    
+    private int opponentOf(int index) {
+        int neighbour = index ^ 1;
+        return neighbour < players ? neighbour : index - 1;
+    }
+    
+    private int next() {
+        int index = cursor;
+        cursor = index + 1 == players ? 0 : index + 1;
+        return index;
+    }
+}
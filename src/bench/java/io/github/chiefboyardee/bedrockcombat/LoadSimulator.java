@@ -0,0 +1,356 @@
+package io.github.chiefboyardee.bedrockcombat;
+
+import io.github.chiefboyardee.bedrockcombat.engine.CombatEngine;
+import io.github.chiefboyardee.bedrockcombat.performance.LatencyHistogram;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.damage.DamageSource;
+import org.bukkit.damage.DamageType;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Headless load simulation: drives a real plugin instance on {@link StandInServer}
+ * with synthetic joins, quits, swings, hits, deaths and world changes, one server
+ * tick at a time, and reports the plugin's per-tick time and allocation together
+ * with the scheduler queue depth and the size of its per-player state.
+ * <p>
+ * Everything runs on the calling thread, so the measured time and allocation cover the
+ * listeners plus the plugin's sync tasks; background threads (statistics writer,
+ * preference loader) are not included.
+ */
+public final class LoadSimulator {
+    
+    private static final String USAGE = "Options: --players N (500), --bedrock-ratio R (0.5), "
+        + "--fight-density D (0.3), --churn QUITS_PER_SECOND (2), --world-changes PER_SECOND (1), "
+        + "--ticks N (2400), --warmup N (400), --report-every N (200), --seed N (42)";
+    
+    /** Shortest and longest fight, in ticks */
+    private static final int MIN_FIGHT_TICKS = 100;
+    private static final int MAX_FIGHT_TICKS = 600;
+    
+    /** Per-tick chance that a fighter swings, and that a swing lands */
+    private static final double SWING_CHANCE = 0.4;
+    private static final double HIT_CHANCE = 0.35;
+    
+    /** Share of fights that end with a death rather than both players walking away */
+    private static final double DEATH_CHANCE = 0.5;
+    
+    private final int targetPlayers;
+    private final double bedrockRatio;
+    private final double fightDensity;
+    private final double churnPerTick;
+    private final double worldChangesPerTick;
+    private final int ticks;
+    private final int warmup;
+    private final int reportEvery;
+    private final Random random;
+    
+    private final StandInServer server = StandInServer.get();
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    
+    private BedrockCombatPlugin plugin;
+    private World nether;
+    private final List<Player> online = new ArrayList<>();
+    private final List<Fight> fights = new ArrayList<>();
+    private final Map<UUID, Fight> fightsByPlayer = new HashMap<>();
+    private int nextPlayer;
+    private long tick;
+    
+    // Measured ticks only
+    private final LatencyHistogram tickTime = new LatencyHistogram();
+    private long totalAllocated;
+    private long maxAllocated;
+    private int maxQueueDepth;
+    private long events;
+    
+    // Current report window
+    private long windowNanos;
+    private long windowAllocated;
+    private int windowTicks;
+    
+    private LoadSimulator(Map<String, String> options) {
+        this.targetPlayers = Integer.parseInt(options.getOrDefault("players", "500"));
+        this.bedrockRatio = Double.parseDouble(options.getOrDefault("bedrock-ratio", "0.5"));
+        this.fightDensity = Double.parseDouble(options.getOrDefault("fight-density", "0.3"));
+        this.churnPerTick = Double.parseDouble(options.getOrDefault("churn", "2")) / 20.0;
+        this.worldChangesPerTick = Double.parseDouble(options.getOrDefault("world-changes", "1")) / 20.0;
+        this.ticks = Integer.parseInt(options.getOrDefault("ticks", "2400"));
+        this.warmup = Integer.parseInt(options.getOrDefault("warmup", "400"));
+        this.reportEvery = Math.max(1, Integer.parseInt(options.getOrDefault("report-every", "200")));
+        this.random = new Random(Long.parseLong(options.getOrDefault("seed", "42")));
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 == args.length) {
+                System.err.println("Unexpected argument '" + args[i] + "'. " + USAGE);
+                System.exit(2);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        new LoadSimulator(options).run();
+    }
+    
+    private void run() throws Exception {
+        server.reset();
+        plugin = server.enablePlugin();
+        nether = server.addWorld("world_nether");
+        plugin.getWorldPolicyTable().loadWorld(nether);
+        
+        System.out.printf("Simulating %d players (%.0f%% Bedrock), fight density %.2f, churn %.1f/s, world changes %.1f/s%n",
+            targetPlayers, bedrockRatio * 100, fightDensity, churnPerTick * 20, worldChangesPerTick * 20);
+        
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < targetPlayers; i++) {
+            join();
+        }
+        server.tick();
+        System.out.printf("Joined %d players in %.1f ms%n", online.size(), (System.nanoTime() - startNanos) / 1e6);
+        
+        for (int i = 0; i < warmup + ticks; i++) {
+            step(i >= warmup);
+        }
+        
+        report();
+        plugin.onDisable();
+        server.reset();
+    }
+    
+    /**
+     * Runs one server tick: this tick's events, then the due scheduler tasks
+     */
+    private void step(boolean measured) {
+        tick++;
+        
+        // Pre-login is asynchronous on a real server, so it stays out of the tick time
+        int joins = Math.max(0, targetPlayers - online.size());
+        List<Player> joining = new ArrayList<>(joins);
+        for (int i = 0; i < joins; i++) {
+            joining.add(preLogin());
+        }
+        
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long startNanos = System.nanoTime();
+        
+        if (!online.isEmpty() && random.nextDouble() < churnPerTick) {
+            quit(online.get(random.nextInt(online.size())));
+        }
+        for (Player player : joining) {
+            joinPrepared(player);
+        }
+        if (!online.isEmpty() && random.nextDouble() < worldChangesPerTick) {
+            changeWorld(online.get(random.nextInt(online.size())));
+        }
+        startFights();
+        runFights();
+        server.tick();
+        
+        long elapsed = System.nanoTime() - startNanos;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        int queueDepth = server.getPendingTaskCount();
+        
+        if (measured) {
+            tickTime.record(elapsed);
+            totalAllocated += allocated;
+            maxAllocated = Math.max(maxAllocated, allocated);
+            maxQueueDepth = Math.max(maxQueueDepth, queueDepth);
+        }
+        windowNanos += elapsed;
+        windowAllocated += allocated;
+        windowTicks++;
+        if (windowTicks == reportEvery) {
+            System.out.printf("tick %6d%s  %8.1f µs/tick  %8.1f KB/tick  queue %3d  %s%n",
+                tick, measured ? " " : "w", windowNanos / 1e3 / windowTicks, windowAllocated / 1024.0 / windowTicks,
+                queueDepth, stateSizes());
+            windowNanos = 0;
+            windowAllocated = 0;
+            windowTicks = 0;
+        }
+    }
+    
+    private void join() {
+        joinPrepared(preLogin());
+    }
+    
+    @SuppressWarnings("deprecation")
+    private Player preLogin() {
+        int number = nextPlayer++;
+        String name = (random.nextDouble() < bedrockRatio ? "." : "") + "Sim" + number;
+        Player player = server.createPlayer(name, random.nextInt(512) - 256, random.nextInt(512) - 256);
+        plugin.onAsyncPlayerPreLogin(new AsyncPlayerPreLoginEvent(name, InetAddress.getLoopbackAddress(), player.getUniqueId()));
+        return player;
+    }
+    
+    private void joinPrepared(Player player) {
+        server.addPlayer(player);
+        online.add(player);
+        plugin.onPlayerJoin(new PlayerJoinEvent(player, null));
+        events++;
+    }
+    
+    private void quit(Player player) {
+        endFight(fightsByPlayer.get(player.getUniqueId()), null);
+        plugin.onPlayerQuit(new PlayerQuitEvent(player, null));
+        server.removePlayer(player);
+        online.remove(player);
+        events++;
+    }
+    
+    private void changeWorld(Player player) {
+        World from = player.getWorld();
+        World to = from == nether ? server.getWorld() : nether;
+        player.teleport(new Location(to, random.nextInt(512) - 256, 64, random.nextInt(512) - 256));
+        plugin.onPlayerChangedWorld(new PlayerChangedWorldEvent(player, from));
+        events++;
+    }
+    
+    /**
+     * Pairs idle players until the configured share of players is fighting
+     */
+    private void startFights() {
+        int target = (int) (online.size() * fightDensity) / 2;
+        int attempts = 0;
+        while (fights.size() < target && attempts++ < target * 4) {
+            Player first = online.get(random.nextInt(online.size()));
+            Player second = online.get(random.nextInt(online.size()));
+            if (first == second || fightsByPlayer.containsKey(first.getUniqueId())
+                || fightsByPlayer.containsKey(second.getUniqueId())) {
+                continue;
+            }
+            Fight fight = new Fight(first, second, tick + MIN_FIGHT_TICKS + random.nextInt(MAX_FIGHT_TICKS - MIN_FIGHT_TICKS));
+            fights.add(fight);
+            fightsByPlayer.put(first.getUniqueId(), fight);
+            fightsByPlayer.put(second.getUniqueId(), fight);
+        }
+    }
+    
+    private void runFights() {
+        // Backwards, since a fight may end (and be removed) while it is visited
+        for (int i = fights.size() - 1; i >= 0; i--) {
+            Fight fight = fights.get(i);
+            if (tick >= fight.endTick) {
+                Player loser = random.nextDouble() < DEATH_CHANCE ? (random.nextBoolean() ? fight.first : fight.second) : null;
+                endFight(fight, loser);
+                continue;
+            }
+            for (int side = 0; side < 2; side++) {
+                if (random.nextDouble() >= SWING_CHANCE) {
+                    continue;
+                }
+                // Swings only reach the plugin while its swing listener is registered
+                if (plugin.getSwingListener().isRegistered()) {
+                    plugin.getSwingListener().onPlayerInteract(fight.swings[side]);
+                    events++;
+                }
+                if (random.nextDouble() < HIT_CHANCE) {
+                    plugin.onPlayerDamagePlayer(fight.hits[side]);
+                    events++;
+                }
+            }
+        }
+    }
+    
+    @SuppressWarnings("deprecation")
+    private void endFight(Fight fight, Player loser) {
+        if (fight == null) {
+            return;
+        }
+        fights.remove(fight);
+        fightsByPlayer.remove(fight.first.getUniqueId());
+        fightsByPlayer.remove(fight.second.getUniqueId());
+        if (loser != null && plugin.getDeathListener().isRegistered()) {
+            plugin.getDeathListener().onPlayerDeath(new PlayerDeathEvent(loser, Collections.emptyList(), 0, null));
+            events++;
+        }
+    }
+    
+    private String stateSizes() {
+        CombatEngine engine = plugin.getCombatEngine();
+        return String.format("online %d, fights %d, bedrock %d, in-pvp %d, timeouts %d, pvp-sessions %d, "
+                + "combat-states %d, pending-modes %d, pending-joins %d, offline-cache %d, swing-listener %s",
+            online.size(), fights.size(), engine.getBedrockPlayerCount(), engine.getPlayersInPvPCount(),
+            engine.getPendingTimeoutCount(), plugin.getPvPDetectionSystem().getPlayersInPvPCount(),
+            engine.getPlayerCount(), engine.getPendingModeCount(),
+            plugin.getJoinQueue().getDepth(), plugin.getOfflinePlayerCache().size(),
+            plugin.getSwingListener().isRegistered() ? "on" : "off");
+    }
+    
+    private void report() {
+        long measured = tickTime.getCount();
+        System.out.println("=== Simulation Report ===");
+        System.out.printf("Measured ticks: %d (after %d warmup), events: %d, players joined: %d%n",
+            measured, warmup, events, nextPlayer);
+        System.out.printf("Plugin time per tick: p50 %.1f µs, p99 %.1f µs, p99.9 %.1f µs, max %.1f µs (budget 50000 µs)%n",
+            tickTime.getPercentile(0.50) / 1e3, tickTime.getPercentile(0.99) / 1e3,
+            tickTime.getPercentile(0.999) / 1e3, tickTime.getMax() / 1e3);
+        System.out.printf("Allocation per tick: mean %.1f KB, max %.1f KB%n",
+            measured > 0 ? totalAllocated / 1024.0 / measured : 0.0, maxAllocated / 1024.0);
+        System.out.printf("Scheduler queue depth: max %d, final %d%n", maxQueueDepth, server.getPendingTaskCount());
+        System.out.println("State sizes: " + stateSizes());
+        
+        Set<UUID> onlineIds = new HashSet<>();
+        for (Player player : online) {
+            onlineIds.add(player.getUniqueId());
+        }
+        int stale = 0;
+        for (UUID playerId : plugin.getCombatEngine().getBedrockPlayers()) {
+            if (!onlineIds.contains(playerId)) {
+                stale++;
+            }
+        }
+        System.out.println("Bedrock preferences of offline players: " + stale);
+    }
+    
+    /**
+     * Two players fighting until endTick, with their events built once
+     */
+    private static final class Fight {
+        final Player first;
+        final Player second;
+        final long endTick;
+        final PlayerInteractEvent[] swings;
+        final EntityDamageByEntityEvent[] hits;
+        
+        Fight(Player first, Player second, long endTick) {
+            this.first = first;
+            this.second = second;
+            this.endTick = endTick;
+            this.swings = new PlayerInteractEvent[] {
+                new PlayerInteractEvent(first, Action.LEFT_CLICK_AIR, null, null, null),
+                new PlayerInteractEvent(second, Action.LEFT_CLICK_AIR, null, null, null)
+            };
+            this.hits = new EntityDamageByEntityEvent[] { hit(first, second), hit(second, first) };
+        }
+        
+        private static EntityDamageByEntityEvent hit(Player attacker, Player victim) {
+            DamageSource source = DamageSource.builder(DamageType.PLAYER_ATTACK)
+                .withCausingEntity(attacker)
+                .withDirectEntity(attacker)
+                .build();
+            return new EntityDamageByEntityEvent(attacker, victim, EntityDamageEvent.DamageCause.ENTITY_ATTACK, source, 1.0);
+        }
+    }
+}
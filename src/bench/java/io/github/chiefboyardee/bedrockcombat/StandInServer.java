@@ -0,0 +1,440 @@
+package io.github.chiefboyardee.bedrockcombat;
+
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.attribute.AttributeInstance;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Minimal in-process server for benchmarks and simulations.
+ * Players, attribute instances, worlds and the scheduler are lightweight
+ * proxies; the scheduler only runs tasks when {@link #tick()} is called.
+ * Bukkit holds a single server per JVM, so there is one instance per fork.
+ */
+public final class StandInServer {
+    
+    private static StandInServer instance;
+    
+    private final Map<UUID, Player> players = new LinkedHashMap<>();
+    private final List<World> worlds = new ArrayList<>();
+    private final Collection<Player> onlineView = Collections.unmodifiableCollection(players.values());
+    private final List<ScheduledTask> tasks = new ArrayList<>();
+    private final Logger logger = Logger.getAnonymousLogger();
+    private final Server server;
+    private final World world;
+    private final PluginManager pluginManager;
+    private final BukkitScheduler scheduler;
+    private long currentTick;
+    private int nextTaskId = 1;
+    
+    private StandInServer() {
+        logger.setUseParentHandlers(false);
+        server = proxy(Server.class, this::handleServer);
+        world = addWorld("world");
+        pluginManager = proxy(PluginManager.class, (proxy, method, args) -> objectMethod(proxy, method, args));
+        scheduler = proxy(BukkitScheduler.class, this::handleScheduler);
+    }
+    
+    /**
+     * Gets the stand-in server, installing it into Bukkit on first use
+     */
+    public static synchronized StandInServer get() {
+        if (instance == null) {
+            instance = new StandInServer();
+            Bukkit.setServer(instance.server);
+        }
+        return instance;
+    }
+    
+    /**
+     * Creates and enables a plugin instance backed by a fresh data folder with the default config
+     */
+    public BedrockCombatPlugin enablePlugin() throws IOException {
+        File dataFolder = Files.createTempDirectory("bedrockcombat-bench").toFile();
+        dataFolder.deleteOnExit();
+        PluginDescriptionFile description = new PluginDescriptionFile("BedrockCombat", "bench",
+            BedrockCombatPlugin.class.getName());
+        @SuppressWarnings("deprecation")
+        JavaPluginLoader loader = new JavaPluginLoader(server);
+        BedrockCombatPlugin plugin = new BedrockCombatPlugin(loader, description, dataFolder, null);
+        plugin.onEnable();
+        return plugin;
+    }
+    
+    /**
+     * Adds a loaded world; the first one is the default world players join in
+     */
+    public World addWorld(String name) {
+        UUID id = new UUID(0L, worlds.size());
+        World added = proxy(World.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return name;
+                case "getUID":
+                    return id;
+                case "getPlayers":
+                    List<Player> inWorld = new ArrayList<>();
+                    for (Player player : players.values()) {
+                        if (player.getWorld() == proxy) {
+                            inWorld.add(player);
+                        }
+                    }
+                    return inWorld;
+                default:
+                    return objectMethod(proxy, method, args);
+            }
+        });
+        worlds.add(added);
+        return added;
+    }
+    
+    /**
+     * Adds an online player standing at the given position
+     */
+    public Player addPlayer(String name, double x, double z) {
+        Player player = createPlayer(name, x, z);
+        addPlayer(player);
+        return player;
+    }
+    
+    /**
+     * Creates a player in the default world without bringing them online (e.g., during pre-login)
+     */
+    public Player createPlayer(String name, double x, double z) {
+        UUID id = UUID.nameUUIDFromBytes(name.getBytes());
+        return standInPlayer(id, name, new Location(world, x, 64, z));
+    }
+    
+    /**
+     * Brings a created player online
+     */
+    public void addPlayer(Player player) {
+        players.put(player.getUniqueId(), player);
+    }
+    
+    /**
+     * Removes a player from the online list
+     */
+    public void removePlayer(Player player) {
+        players.remove(player.getUniqueId());
+    }
+    
+    /**
+     * Removes all players, scheduled tasks and added worlds
+     */
+    public void reset() {
+        players.clear();
+        tasks.clear();
+        worlds.subList(1, worlds.size()).clear();
+    }
+    
+    /**
+     * Advances one server tick, running every task that is due
+     */
+    public void tick() {
+        currentTick++;
+        // Tasks may schedule more tasks, so run a snapshot
+        List<ScheduledTask> due = new ArrayList<>();
+        for (ScheduledTask task : tasks) {
+            if (!task.cancelled && task.nextRun <= currentTick) {
+                due.add(task);
+            }
+        }
+        for (ScheduledTask task : due) {
+            if (task.cancelled) {
+                continue;
+            }
+            task.runnable.run();
+            if (task.period > 0) {
+                task.nextRun = currentTick + task.period;
+            } else {
+                task.cancelled = true;
+            }
+        }
+        for (Iterator<ScheduledTask> it = tasks.iterator(); it.hasNext(); ) {
+            if (it.next().cancelled) {
+                it.remove();
+            }
+        }
+    }
+    
+    public long getCurrentTick() {
+        return currentTick;
+    }
+    
+    public int getPendingTaskCount() {
+        return tasks.size();
+    }
+    
+    public World getWorld() {
+        return world;
+    }
+    
+    public List<World> getWorlds() {
+        return Collections.unmodifiableList(worlds);
+    }
+    
+    public Server getServer() {
+        return server;
+    }
+    
+    private Object handleServer(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getName":
+                return "StandIn";
+            case "getVersion":
+            case "getBukkitVersion":
+                return "1.21-R0.1-SNAPSHOT";
+            case "getLogger":
+                return logger;
+            case "getPluginManager":
+                return pluginManager;
+            case "getScheduler":
+                return scheduler;
+            case "getOnlinePlayers":
+                return onlineView;
+            case "getWorlds":
+                return new ArrayList<>(worlds);
+            case "getPlayer":
+                return args[0] instanceof UUID ? players.get(args[0]) : null;
+            case "isPrimaryThread":
+                return true;
+            case "getRegistry":
+                return registry((Class<?>) args[0]);
+            case "getUnsafe":
+                return deepStandIn(method.getReturnType());
+            default:
+                return objectMethod(proxy, method, args);
+        }
+    }
+    
+    private Object handleScheduler(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        if (name.equals("cancelTask")) {
+            for (ScheduledTask task : tasks) {
+                if (task.taskId == (Integer) args[0]) {
+                    task.cancelled = true;
+                }
+            }
+            return null;
+        }
+        if (!name.startsWith("runTask")) {
+            return objectMethod(proxy, method, args);
+        }
+        
+        // runTask(plugin, task), runTaskLater(plugin, task, delay), runTaskTimer(plugin, task, delay, period)
+        long delay = args.length > 2 ? (Long) args[2] : 0L;
+        long period = args.length > 3 ? (Long) args[3] : 0L;
+        ScheduledTask task = new ScheduledTask(nextTaskId++, (Runnable) args[1], currentTick + Math.max(1L, delay), period);
+        tasks.add(task);
+        return task.handle;
+    }
+    
+    private Player standInPlayer(UUID id, String name, Location location) {
+        double[] attackSpeed = { 4.0 };
+        AttributeInstance attribute = proxy(AttributeInstance.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getBaseValue":
+                case "getValue":
+                    return attackSpeed[0];
+                case "setBaseValue":
+                    attackSpeed[0] = (Double) args[0];
+                    return null;
+                case "getDefaultValue":
+                    return 4.0;
+                case "getModifiers":
+                    return Collections.emptyList();
+                default:
+                    return objectMethod(proxy, method, args);
+            }
+        });
+        Player.Spigot spigot = new Player.Spigot() {
+            @Override
+            public void sendMessage(ChatMessageType position, BaseComponent component) {
+            }
+            
+            @Override
+            public void sendMessage(ChatMessageType position, BaseComponent... components) {
+            }
+        };
+        
+        return proxy(Player.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getUniqueId":
+                    return id;
+                case "getName":
+                case "getDisplayName":
+                    return name;
+                case "isOnline":
+                case "isValid":
+                    return players.containsKey(id);
+                case "getWorld":
+                    return location.getWorld();
+                case "getLocation":
+                    if (args == null) {
+                        return location.clone();
+                    }
+                    Location target = (Location) args[0];
+                    target.setWorld(location.getWorld());
+                    target.setX(location.getX());
+                    target.setY(location.getY());
+                    target.setZ(location.getZ());
+                    return target;
+                case "teleport":
+                    if (!(args[0] instanceof Location)) {
+                        return false;
+                    }
+                    Location destination = (Location) args[0];
+                    location.setWorld(destination.getWorld());
+                    location.setX(destination.getX());
+                    location.setY(destination.getY());
+                    location.setZ(destination.getZ());
+                    return true;
+                case "getAttribute":
+                    return attribute;
+                case "spigot":
+                    return spigot;
+                case "hasPermission":
+                    return true;
+                default:
+                    return objectMethod(proxy, method, args);
+            }
+        });
+    }
+    
+    /**
+     * Registry whose lookups return stand-ins of its element type, enough for
+     * API classes that resolve their constants at class initialization
+     */
+    private Object registry(Class<?> elementType) {
+        return proxy(org.bukkit.Registry.class, (proxy, method, args) -> {
+            if (method.getName().equals("get") || method.getName().equals("match")) {
+                return deepStandIn(elementType);
+            }
+            return objectMethod(proxy, method, args);
+        });
+    }
+    
+    /**
+     * Stand-in that answers interface-typed calls with further stand-ins and everything else with defaults
+     */
+    private static Object deepStandIn(Class<?> type) {
+        if (!type.isInterface()) {
+            return null;
+        }
+        return proxy(type, (proxy, method, args) -> {
+            Object result = objectMethod(proxy, method, args);
+            if (result == null && method.getReturnType().isInterface()) {
+                return deepStandIn(method.getReturnType());
+            }
+            return result;
+        });
+    }
+    
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(StandInServer.class.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+    
+    /**
+     * Identity-based Object methods, and default values for anything unhandled
+     */
+    private static Object objectMethod(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "StandIn" + proxy.getClass().getInterfaces()[0].getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+            default:
+                return defaultValue(method.getReturnType());
+        }
+    }
+    
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == float.class) {
+            return 0.0f;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        return null;
+    }
+    
+    /**
+     * Task queued on the stand-in scheduler
+     */
+    private final class ScheduledTask {
+        final int taskId;
+        final Runnable runnable;
+        final long period;
+        final BukkitTask handle;
+        long nextRun;
+        boolean cancelled;
+        
+        ScheduledTask(int taskId, Runnable runnable, long nextRun, long period) {
+            this.taskId = taskId;
+            this.runnable = runnable;
+            this.nextRun = nextRun;
+            this.period = period;
+            this.handle = proxy(BukkitTask.class, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getTaskId":
+                        return taskId;
+                    case "isCancelled":
+                        return cancelled;
+                    case "cancel":
+                        cancelled = true;
+                        return null;
+                    case "isSync":
+                        return true;
+                    default:
+                        return objectMethod(proxy, method, args);
+                }
+            });
+        }
+    }
+}
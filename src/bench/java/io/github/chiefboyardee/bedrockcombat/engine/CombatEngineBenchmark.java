@@ -0,0 +1,129 @@
+package io.github.chiefboyardee.bedrockcombat.engine;
+
+import io.github.chiefboyardee.bedrockcombat.combat.CombatMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the combat engine directly with synthetic hits and ticks, no server involved.
+ * Effects are only counted, so this measures the state machine alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CombatEngineBenchmark {
+    
+    /** 10 seconds, the default pvp.detection.timeout */
+    private static final long TIMEOUT_TICKS = 200L;
+    
+    @Param({"200", "5000"})
+    public int players;
+    
+    /** Hits per tick; the rest of the players time out and return to Bedrock combat */
+    @Param({"10", "100"})
+    public int hitsPerTick;
+    
+    private CombatEngine engine;
+    private CountingEffects effects;
+    private PlayerCombatState[] states;
+    private int cursor;
+    
+    @Setup
+    public void setup() {
+        effects = new CountingEffects();
+        engine = new CombatEngine(effects, 256);
+        states = new PlayerCombatState[players];
+        for (int i = 0; i < players; i++) {
+            states[i] = engine.addPlayer(new UUID(0L, i), null);
+            engine.setBedrockPlayer(states[i], i % 2 == 0);
+            engine.applyCombatMode(states[i]);
+        }
+        engine.flushModes();
+    }
+    
+    /**
+     * One hit between neighbours: both players enter (or stay in) PvP mode
+     */
+    @Benchmark
+    public void hit() {
+        int attacker = next();
+        engine.enterPvPMode(states[attacker], TIMEOUT_TICKS);
+        engine.enterPvPMode(states[opponentOf(attacker)], TIMEOUT_TICKS);
+    }
+    
+    @Benchmark
+    public CombatMode resolveMode() {
+        return engine.resolveMode(states[next()]);
+    }
+    
+    /**
+     * One hit looked up by player ID, as the damage handler does
+     */
+    @Benchmark
+    public void hitById() {
+        int attacker = next();
+        engine.enterPvPMode(engine.getState(states[attacker].getPlayerId()), TIMEOUT_TICKS);
+        engine.enterPvPMode(engine.getState(states[opponentOf(attacker)].getPlayerId()), TIMEOUT_TICKS);
+    }
+    
+    /**
+     * One logical tick with its share of hits, including timeout expiry and mode flush
+     */
+    @Benchmark
+    public long tick() {
+        for (int i = 0; i < hitsPerTick; i++) {
+            hit();
+        }
+        engine.tick();
+        engine.flushModes();
+        return effects.count;
+    }
+    
+    private int opponentOf(int index) {
+        int neighbour = index ^ 1;
+        return neighbour < players ? neighbour : index - 1;
+    }
+    
+    private int next() {
+        int index = cursor;
+        cursor = index + 1 == players ? 0 : index + 1;
+        return index;
+    }
+    
+    /**
+     * Effects sink that only counts
+     */
+    private static final class CountingEffects implements CombatEffects {
+        long count;
+        
+        @Override
+        public void setCombatMode(PlayerCombatState state, CombatMode mode) {
+            count++;
+        }
+        
+        @Override
+        public void sendMessage(PlayerCombatState state, String message) {
+            count++;
+        }
+        
+        @Override
+        public void updateHud(PlayerCombatState state) {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package io.github.chiefboyardee.bedrockcombat.integrations;
+
+import io.github.chiefboyardee.bedrockcombat.combat.CombatMode;
+import io.github.chiefboyardee.bedrockcombat.engine.CombatEffects;
+import io.github.chiefboyardee.bedrockcombat.engine.CombatEngine;
+import io.github.chiefboyardee.bedrockcombat.engine.PlayerCombatState;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the per-call reflective Floodgate lookup with the bound probe
+ * and the platform kept in each player's combat state, and the compiled
+ * username rules with matching each configured pattern in turn
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlatformLookupBenchmark {
+    
+    private static final int PLAYERS = 150;
+    
+    /** The patterns shipped in config.yml plus a few typical additions */
+    private static final List<String> PATTERNS = Arrays.asList(
+        "^\\*.*", ".*_mobile$", ".*_console$", "^BE_.*", ".*_switch$", "^xb[0-9]+");
+    
+    private UUID[] playerIds;
+    private Player[] players;
+    private IntegrationManager integrationManager;
+    private CombatEngine engine;
+    private UsernameRules rules;
+    private Pattern[] patterns;
+    private String[] names;
+    private MethodHandle boundProbe;
+    private int cursor;
+    
+    @Setup
+    public void setup() throws Exception {
+        playerIds = new UUID[PLAYERS];
+        players = new Player[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            UUID id = new UUID(0L, i);
+            playerIds[i] = id;
+            players[i] = standInPlayer(id);
+        }
+        
+        boundProbe = IntegrationManager.bindFloodgateProbe(StandInFloodgateApi.class);
+        
+        // The manager only needs its probe to classify; plugin and config are not touched
+        integrationManager = new IntegrationManager(null, null);
+        Field probeField = IntegrationManager.class.getDeclaredField("floodgateProbe");
+        probeField.setAccessible(true);
+        probeField.set(integrationManager, boundProbe);
+        
+        rules = UsernameRules.compile(".", false, PATTERNS, true);
+        patterns = new Pattern[PATTERNS.size()];
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = Pattern.compile(PATTERNS.get(i));
+        }
+        names = new String[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            // Mostly names no rule matches, the worst case for both
+            names[i] = i % 10 == 0 ? "Player" + i + "_mobile" : "Player" + i;
+        }
+        
+        // Detected once at join, then read from the player's state
+        engine = new CombatEngine(new NoEffects(), 256);
+        for (Player player : players) {
+            engine.addPlayer(player.getUniqueId(), player)
+                .setBedrockPlatform(integrationManager.isBedrockPlayer(player));
+        }
+    }
+    
+    /**
+     * The lookup chain IntegrationManager used to run on every call
+     */
+    @Benchmark
+    public boolean reflectivePerCall() throws Exception {
+        UUID playerId = playerIds[next()];
+        Class<?> floodgateApiClass = Class.forName(StandInFloodgateApi.class.getName());
+        Object apiInstance = floodgateApiClass.getMethod("getInstance").invoke(null);
+        Boolean isFloodgatePlayer = (Boolean) floodgateApiClass
+            .getMethod("isFloodgatePlayer", UUID.class)
+            .invoke(apiInstance, playerId);
+        return isFloodgatePlayer != null && isFloodgatePlayer;
+    }
+    
+    @Benchmark
+    public boolean boundProbe() throws Throwable {
+        return (boolean) boundProbe.invokeExact(playerIds[next()]);
+    }
+    
+    @Benchmark
+    public boolean stateLookup() {
+        return engine.getState(playerIds[next()]).isBedrockPlatform();
+    }
+    
+    /**
+     * Every pattern compiled separately and tried in turn
+     */
+    @Benchmark
+    public boolean patternPerRule() {
+        String name = names[next()];
+        if (name.startsWith(".")) {
+            return true;
+        }
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(name).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Benchmark
+    public boolean compiledRules() {
+        return rules.matches(names[next()]);
+    }
+    
+    private int next() {
+        int index = cursor;
+        cursor = index + 1 == PLAYERS ? 0 : index + 1;
+        return index;
+    }
+    
+    private static Player standInPlayer(UUID id) {
+        return (Player) Proxy.newProxyInstance(
+            PlatformLookupBenchmark.class.getClassLoader(),
+            new Class<?>[] { Player.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getUniqueId":
+                        return id;
+                    case "getName":
+                        return "Player" + id.getLeastSignificantBits();
+                    case "hashCode":
+                        return id.hashCode();
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+    
+    /**
+     * The engine is only used as the state store here
+     */
+    private static final class NoEffects implements CombatEffects {
+        @Override
+        public void setCombatMode(PlayerCombatState state, CombatMode mode) {
+        }
+        
+        @Override
+        public void sendMessage(PlayerCombatState state, String message) {
+        }
+        
+        @Override
+        public void updateHud(PlayerCombatState state) {
+        }
+    }
+    
+    /**
+     * Mirrors the shape of org.geysermc.floodgate.api.FloodgateApi
+     */
+    public static final class StandInFloodgateApi {
+        private static final StandInFloodgateApi INSTANCE = new StandInFloodgateApi();
+        
+        public static StandInFloodgateApi getInstance() {
+            return INSTANCE;
+        }
+        
+        public boolean isFloodgatePlayer(UUID uuid) {
+            return (uuid.getLeastSignificantBits() & 1L) == 0L;
+        }
+    }
+}
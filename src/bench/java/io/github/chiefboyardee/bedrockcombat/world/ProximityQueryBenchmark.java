@@ -0,0 +1,167 @@
+package io.github.chiefboyardee.bedrockcombat.world;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a 20-block radius query on PlayerSpatialIndex with the full-world
+ * Location.distance scan that onPlayerDeath used to run
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProximityQueryBenchmark {
+    
+    private static final double RADIUS = 20.0;
+    
+    /** Side of the square area players are spread over, in blocks */
+    private static final int SPREAD = 1024;
+    
+    @Param({"50", "200", "500"})
+    public int players;
+    
+    private World world;
+    private List<Player> online;
+    private Player[] centers;
+    private PlayerSpatialIndex index;
+    private final List<Player> nearby = new ArrayList<>();
+    private int cursor;
+    
+    @Setup
+    public void setup() {
+        online = new ArrayList<>(players);
+        world = standInWorld(online);
+        index = new PlayerSpatialIndex();
+        
+        // Half the players are grouped in a few hotspots, the rest are spread out
+        Random random = new Random(42L);
+        for (int i = 0; i < players; i++) {
+            double x;
+            double z;
+            if (i % 2 == 0) {
+                int hotspot = random.nextInt(4);
+                x = hotspot * 200 + random.nextGaussian() * 12;
+                z = hotspot * 150 + random.nextGaussian() * 12;
+            } else {
+                x = random.nextInt(SPREAD) - SPREAD / 2;
+                z = random.nextInt(SPREAD) - SPREAD / 2;
+            }
+            Player player = standInPlayer(new UUID(0L, i), new Location(world, x, 64, z));
+            online.add(player);
+            index.add(player);
+        }
+        centers = online.toArray(new Player[0]);
+    }
+    
+    /**
+     * The old onPlayerDeath proximity check
+     */
+    @Benchmark
+    public int fullWorldScan() {
+        Player center = centers[next()];
+        UUID centerId = center.getUniqueId();
+        int found = 0;
+        for (Player player : center.getWorld().getPlayers()) {
+            if (player.getUniqueId().equals(centerId)) continue;
+            
+            double distance = player.getLocation().distance(center.getLocation());
+            if (distance <= RADIUS) {
+                found++;
+            }
+        }
+        return found;
+    }
+    
+    @Benchmark
+    public int spatialIndex() {
+        Player center = centers[next()];
+        Location location = center.getLocation();
+        nearby.clear();
+        return index.queryRadius(location.getWorld(), location.getX(), location.getY(), location.getZ(),
+            RADIUS, center.getUniqueId(), nearby);
+    }
+    
+    private int next() {
+        int index = cursor;
+        cursor = index + 1 == centers.length ? 0 : index + 1;
+        return index;
+    }
+    
+    /**
+     * World whose getPlayers() copies the list, as CraftWorld does
+     */
+    private static World standInWorld(List<Player> online) {
+        return (World) Proxy.newProxyInstance(
+            ProximityQueryBenchmark.class.getClassLoader(),
+            new Class<?>[] { World.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getPlayers":
+                        return new ArrayList<>(online);
+                    case "getName":
+                        return "world";
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+    
+    /**
+     * Player whose getLocation() returns a copy and getLocation(Location) fills the argument, as in CraftBukkit
+     */
+    private static Player standInPlayer(UUID id, Location location) {
+        return (Player) Proxy.newProxyInstance(
+            ProximityQueryBenchmark.class.getClassLoader(),
+            new Class<?>[] { Player.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getUniqueId":
+                        return id;
+                    case "getWorld":
+                        return location.getWorld();
+                    case "getLocation":
+                        if (args == null) {
+                            return new Location(location.getWorld(), location.getX(), location.getY(), location.getZ());
+                        }
+                        Location target = (Location) args[0];
+                        target.setWorld(location.getWorld());
+                        target.setX(location.getX());
+                        target.setY(location.getY());
+                        target.setZ(location.getZ());
+                        return target;
+                    case "hashCode":
+                        return id.hashCode();
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+}
@@ -1,35 +1,62 @@
 package io.github.chiefboyardee.bedrockcombat;
 
+import io.github.chiefboyardee.bedrockcombat.cache.CachedPlayerState;
+import io.github.chiefboyardee.bedrockcombat.cache.OfflinePlayerCache;
+import io.github.chiefboyardee.bedrockcombat.combat.BukkitCombatEffects;
+import io.github.chiefboyardee.bedrockcombat.combat.CombatMode;
+import io.github.chiefboyardee.bedrockcombat.combat.CombatModeApplier;
 import io.github.chiefboyardee.bedrockcombat.config.ConfigManager;
+import io.github.chiefboyardee.bedrockcombat.config.ConfigSnapshot;
+import io.github.chiefboyardee.bedrockcombat.config.WorldCombatPolicy;
 import io.github.chiefboyardee.bedrockcombat.database.DatabaseManager;
+import io.github.chiefboyardee.bedrockcombat.engine.CombatEngine;
+import io.github.chiefboyardee.bedrockcombat.engine.JoinQueue;
+import io.github.chiefboyardee.bedrockcombat.engine.PlayerCombatState;
+import io.github.chiefboyardee.bedrockcombat.performance.Operation;
 import io.github.chiefboyardee.bedrockcombat.performance.PerformanceMonitor;
 import io.github.chiefboyardee.bedrockcombat.integrations.IntegrationManager;
 import io.github.chiefboyardee.bedrockcombat.commands.ConfigCommand;
+import io.github.chiefboyardee.bedrockcombat.listeners.DynamicListener;
+import io.github.chiefboyardee.bedrockcombat.listeners.PvPDeathListener;
+import io.github.chiefboyardee.bedrockcombat.listeners.PvPSwingListener;
+import io.github.chiefboyardee.bedrockcombat.listeners.SpatialIndexListener;
 import io.github.chiefboyardee.bedrockcombat.pvp.PvPDetectionSystem;
+import io.github.chiefboyardee.bedrockcombat.scheduler.ScheduledWork;
+import io.github.chiefboyardee.bedrockcombat.scheduler.WorkClass;
+import io.github.chiefboyardee.bedrockcombat.scheduler.WorkScheduler;
 import io.github.chiefboyardee.bedrockcombat.ui.ActionBarManager;
+import io.github.chiefboyardee.bedrockcombat.ui.BossBarManager;
+import io.github.chiefboyardee.bedrockcombat.world.PlayerSpatialIndex;
+import io.github.chiefboyardee.bedrockcombat.world.WorldPolicyTable;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.attribute.Attribute;
-import org.bukkit.attribute.AttributeInstance;
+import org.bukkit.Location;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
-import org.bukkit.event.entity.PlayerDeathEvent;
-import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
-import org.bukkit.event.block.Action;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.attribute.AttributeModifier;
 import org.bukkit.NamespacedKey;
 
+import java.io.File;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -50,17 +77,28 @@ public class BedrockCombatPlugin extends JavaPlugin implements Listener, TabComp
     /** Java Edition default attack speed (attacks per second) */
     private static final double JAVA_ATTACK_SPEED = 4.0;
     
-    /** PvP timeout in seconds - how long to wait after PvP before reverting combat modes */
-    private static final int PVP_TIMEOUT_SECONDS = 10;
+    /** Per-player combat state, PvP timeouts and mode batching; its effects are carried out by BukkitCombatEffects */
+    private CombatEngine combatEngine;
     
-    /** Players who prefer Bedrock combat (either auto-detected or manually set) */
-    private final Set<UUID> bedrockPlayers = ConcurrentHashMap.newKeySet();
+    /** Main-thread work by priority class within performance.optimization.tick-budget-ms; the combat tick is its critical work */
+    private WorkScheduler workScheduler;
     
-    /** Players currently in PvP mode (temporarily using Java combat) */
-    private final Set<UUID> playersInPvP = ConcurrentHashMap.newKeySet();
+    /** The only repeating server task, driving the work scheduler */
+    private BukkitTask schedulerTask;
     
-    /** PvP timeout tasks for each player */
-    private final Map<UUID, BukkitRunnable> pvpTimeoutTasks = new ConcurrentHashMap<>();
+    /** Offline player cache sweep, every performance.limits.cleanup-interval minutes */
+    private ScheduledWork cacheSweep;
+    
+    /** Writes the attack speed of the combat modes the engine emits */
+    private CombatModeApplier combatModeApplier;
+    
+    /** Deferred part of joins, drained within performance.optimization.batch-size and batch-budget-us per tick */
+    private JoinQueue joinQueue;
+    private boolean joinBatching;
+    
+    /** Swing and death handlers, registered only while someone they apply to is in PvP */
+    private PvPSwingListener swingListener;
+    private PvPDeathListener deathListener;
     
     /** Whether PvP detection is enabled (can be configured) */
     private boolean pvpDetectionEnabled = true;
@@ -72,7 +110,33 @@ public class BedrockCombatPlugin extends JavaPlugin implements Listener, TabComp
     private IntegrationManager integrationManager;
     private PvPDetectionSystem pvpDetectionSystem;
     private ActionBarManager actionBarManager;
-
+    private BossBarManager bossBarManager;
+    private WorldPolicyTable worldPolicyTable;
+    
+    /** Online players bucketed by chunk-sized cell for proximity queries */
+    private final PlayerSpatialIndex spatialIndex = new PlayerSpatialIndex();
+    
+    /** Position tracking for the spatial index, registered only while pvp.detection.bystander-radius is set */
+    private SpatialIndexListener spatialIndexListener;
+    
+    /** Reused by the bystander query on every hit */
+    private final List<Player> bystanders = new ArrayList<>();
+    private final Location bystanderCenter = new Location(null, 0, 0, 0);
+    
+    /** Platform and combat mode of recently departed players, limits applied on enable */
+    private final OfflinePlayerCache offlinePlayerCache = new OfflinePlayerCache(0L, 0);
+    
+    public BedrockCombatPlugin() {
+        super();
+    }
+    
+    /**
+     * Creates the plugin outside a running server, for benchmarks and simulations
+     */
+    protected BedrockCombatPlugin(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
+    
     @Override
     public void onEnable() {
         try {
@@ -86,6 +150,22 @@ public class BedrockCombatPlugin extends JavaPlugin implements Listener, TabComp
             configManager = new ConfigManager(this);
             configManager.loadConfig();
             getLogger().info("Configuration loaded successfully");
+            reloadCacheSettings();
+            
+            // Resolve per-world combat policies
+            worldPolicyTable = new WorldPolicyTable(configManager);
+            worldPolicyTable.rebuild(getServer().getWorlds());
+            getLogger().info("World policies resolved for " + worldPolicyTable.getWorldCount() + " worlds");
+            
+            combatModeApplier = new CombatModeApplier(this, configManager);
+            combatEngine = new CombatEngine(new BukkitCombatEffects(this, combatModeApplier), 256);
+            joinQueue = new JoinQueue(this::completeJoin, 1, 0L);
+            reloadJoinSettings();
+            
+            // Track players already online (plugin reloads)
+            for (Player player : getServer().getOnlinePlayers()) {
+                trackPlayer(player);
+            }
             
             // Initialize database manager
             databaseManager = new DatabaseManager(this, configManager);
@@ -104,27 +184,50 @@ public class BedrockCombatPlugin extends JavaPlugin implements Listener, TabComp
             
             // Initialize PvP detection system
             pvpDetectionSystem = new PvPDetectionSystem(this, configManager);
+            pvpDetectionSystem.initialize();
             getLogger().info("PvP detection system initialized");
             
+            // Single repeating task for all main-thread work: PvP timeouts and batched combat mode
+            // writes every tick, then HUD, analytics and maintenance work within the tick budget
+            workScheduler = new WorkScheduler(getLogger(), configManager.getTickBudgetMillis());
+            workScheduler.scheduleRepeating(WorkClass.CRITICAL, this::tickCombat, 1L, 1L);
+            workScheduler.scheduleRepeating(WorkClass.MAINTENANCE, pvpDetectionSystem::cleanupExpiredEntries, 20L, 20L);
+            reloadSchedulerSettings();
+            schedulerTask = getServer().getScheduler().runTaskTimer(this, workScheduler::runTick, 1L, 1L);
+            
             // Initialize action bar manager
             actionBarManager = new ActionBarManager(this, configManager);
+            actionBarManager.start();
             getLogger().info("Action bar manager initialized");
             
+            // Initialize boss bar manager
+            bossBarManager = new BossBarManager(this, configManager);
+            bossBarManager.start();
+            
             getLogger().info("Cross-platform combat optimization enabled!");
             getLogger().info("- Bedrock players: Fast combat (" + BEDROCK_ATTACK_SPEED + " attack speed)");
             getLogger().info("- Java players: Traditional combat (" + JAVA_ATTACK_SPEED + " attack speed)");
             getLogger().info("- PvP Detection: " + (pvpDetectionEnabled ? "ENABLED" : "DISABLED"));
-            getLogger().info("- PvP Timeout: " + PVP_TIMEOUT_SECONDS + " seconds");
+            getLogger().info("- PvP Timeout: " + configManager.getPvpTimeout() + " seconds");
             
             // Test if we can register events
             getServer().getPluginManager().registerEvents(this, this);
+            swingListener = new PvPSwingListener(this);
+            deathListener = new PvPDeathListener(this);
+            spatialIndexListener = new SpatialIndexListener(this, spatialIndex);
+            reloadProximitySettings();
             getLogger().info("Event listeners registered successfully!");
             
             // Register commands
-            ConfigCommand configCommand = new ConfigCommand(this);
-            getCommand("bedrockcombat").setExecutor(configCommand);
-            getCommand("bedrockcombat").setTabCompleter(configCommand);
-            getLogger().info("Commands registered successfully!");
+            PluginCommand command = getCommand("bedrockcombat");
+            if (command != null) {
+                ConfigCommand configCommand = new ConfigCommand(this);
+                command.setExecutor(configCommand);
+                command.setTabCompleter(configCommand);
+                getLogger().info("Commands registered successfully!");
+            } else {
+                getLogger().warning("Command 'bedrockcombat' is missing from plugin.yml");
+            }
             
             getLogger().info("========================================");
             getLogger().info("BedrockCombatCompat plugin enabled!");
@@ -139,7 +242,7 @@ public class BedrockCombatPlugin extends JavaPlugin implements Listener, TabComp
             getServer().getPluginManager().disablePlugin(this);
         }
     }
-
+    
     @Override
     public void onDisable() {
         try {
@@ -147,24 +250,42 @@ public class BedrockCombatPlugin extends JavaPlugin implements Listener, TabComp
             getLogger().info("BedrockCombat v" + getDescription().getVersion() + " is shutting down...");
             
             // Reset all players to default combat speed
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                setJavaCombat(player);
+            if (combatEngine != null) {
+                for (PlayerCombatState state : combatEngine.getStates()) {
+                    setJavaCombat(state);
+                }
+                combatEngine.flushModes();
             }
             
-            // Cancel all PvP timeout tasks
-            pvpTimeoutTasks.values().forEach(task -> {
-                if (task != null && !task.isCancelled()) {
-                    task.cancel();
-                }
-            });
-            pvpTimeoutTasks.clear();
+            // Stop the work scheduler, the PvP timeout wheel and the join queue
+            if (schedulerTask != null) {
+                schedulerTask.cancel();
+                schedulerTask = null;
+            }
+            if (workScheduler != null) {
+                workScheduler.clear();
+            }
+            if (joinQueue != null) {
+                joinQueue.clear();
+            }
+            for (DynamicListener listener : getDynamicListeners()) {
+                listener.setRegistered(false);
+            }
             
             // Shutdown systems in reverse order
+            if (bossBarManager != null) {
+                bossBarManager.stop();
+            }
+            
             if (actionBarManager != null) {
                 actionBarManager.shutdown();
                 getLogger().info("Action bar manager shutdown");
             }
             
+            if (pvpDetectionSystem != null) {
+                pvpDetectionSystem.shutdown();
+            }
+            
             if (performanceMonitor != null) {
                 performanceMonitor.shutdown();
                 getLogger().info("Performance monitor shutdown");
@@ -181,8 +302,10 @@ public class BedrockCombatPlugin extends JavaPlugin implements Listener, TabComp
             }
             
             // Clear player data
-            bedrockPlayers.clear();
-            playersInPvP.clear();
+            if (combatEngine != null) {
+                combatEngine.clear();
+            }
+            offlinePlayerCache.clear();
             
             getLogger().info("Player data cleared and tasks cancelled");
             getLogger().info("BedrockCombatCompat plugin disabled successfully!");
@@ -193,373 +316,485 @@ public class BedrockCombatPlugin extends JavaPlugin implements Listener, TabComp
              e.printStackTrace();
          }
      }
-
+    
     /**
      * Automatically applies Bedrock combat to players with Floodgate prefix
      * and tracks their preference for future PvP/PvE switching.
      */
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
-        Player player = event.getPlayer();
-        UUID playerId = player.getUniqueId();
-        
-        // Record performance metrics
-        if (performanceMonitor != null) {
-            performanceMonitor.recordOperation("player_join");
-        }
-        
-        // Check if player detection is enabled
-        if (!configManager.isPlayerDetectionEnabled()) {
-            return;
-        }
-        
-        boolean isBedrockPlayer = false;
-        
-        // Use integration manager to detect Bedrock players
-        if (integrationManager != null && integrationManager.isFloodgateEnabled()) {
-            isBedrockPlayer = integrationManager.isBedrockPlayer(player);
-        } else {
-            // Fallback to prefix detection
-            isBedrockPlayer = player.getName().startsWith(configManager.getFloodgatePrefix());
-        }
-        
-        if (isBedrockPlayer) {
-            // Bedrock player detected
-            bedrockPlayers.add(playerId);
-            
-            // Load player data from database
-            if (databaseManager != null) {
-                databaseManager.loadPlayerData(playerId);
-            }
+        long startNanos = System.nanoTime();
+        try {
+            Player player = event.getPlayer();
+            ConfigSnapshot config = configManager.getSnapshot();
             
-            applyCombatMode(player);
+            // One state object holds everything tracked about the player this session
+            PlayerCombatState state = trackPlayer(player);
             
-            // Send welcome message if enabled
-            if (configManager.isWelcomeMessageEnabled()) {
-                String message = configManager.getWelcomeMessage()
-                    .replace("{player}", player.getName());
-                player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+            // Check if player detection is enabled
+            if (!config.isPlayerDetectionEnabled()) {
+                return;
             }
             
-            // Start action bar updates if enabled
-            if (actionBarManager != null) {
-                actionBarManager.startActionBarUpdates(player);
+            // Detection, combat mode and welcome run from the join queue when batching
+            if (joinBatching) {
+                joinQueue.enqueue(state);
+            } else {
+                completeJoin(state);
             }
-            
-        } else {
-            // Java player - ensure they're not in bedrock set and apply Java combat
-            bedrockPlayers.remove(playerId);
-            applyCombatMode(player);
+        } finally {
+            performanceMonitor.recordTime(Operation.PLAYER_JOIN, startNanos);
         }
     }
-
+    
     /**
-     * Handles PvP detection - when a player attacks another player
+     * The deferred part of a join: detection, stored preference, combat mode,
+     * welcome message and action bar
      */
-    @EventHandler
-    public void onPlayerDamagePlayer(EntityDamageByEntityEvent event) {
-        if (!configManager.isPvpDetectionEnabled()) return;
-        
-        if (event.getDamager() instanceof Player && event.getEntity() instanceof Player) {
-            Player attacker = (Player) event.getDamager();
-            Player victim = (Player) event.getEntity();
-            
-            // Record performance metrics
-            if (performanceMonitor != null) {
-                performanceMonitor.recordOperation("pvp_event");
-            }
-            
-            // Check if PvP is allowed in this world
-            if (!configManager.isPvpEnabledInWorld(attacker.getWorld().getName())) {
-                return;
+    private void completeJoin(PlayerCombatState state) {
+        long startNanos = System.nanoTime();
+        try {
+            Player player = (Player) state.getHandle();
+            UUID playerId = state.getPlayerId();
+            ConfigSnapshot config = configManager.getSnapshot();
+            
+            boolean isBedrockPlayer = false;
+            
+            CachedPlayerState cached = offlinePlayerCache.take(playerId);
+            if (cached != null) {
+                // Rejoined within the cache duration: no detection or stored preference lookup
+                isBedrockPlayer = cached.prefersBedrock();
+                state.setBedrockPlatform(cached.isBedrockPlatform());
+                state.setStoredPreference(cached.hasStoredPreference());
+            } else {
+                // Use integration manager to detect Bedrock players (kept in the state for the session)
+                if (integrationManager != null) {
+                    isBedrockPlayer = integrationManager.isBedrockPlayer(player);
+                } else {
+                    // Fallback to prefix detection
+                    isBedrockPlayer = player.getName().startsWith(config.getFloodgatePrefix());
+                }
+                state.setBedrockPlatform(isBedrockPlayer);
+                
+                // A stored preference overrides detection; it was preloaded during pre-login
+                CompletableFuture<Boolean> preference = databaseManager != null
+                    ? databaseManager.takePreloadedPreference(playerId) : null;
+                if (preference == null && databaseManager != null) {
+                    // Pre-login skipped the preload for a cached player whose entry expired
+                    // or was evicted before the join: load it now and apply it when it arrives
+                    preference = databaseManager.loadPreferenceAsync(playerId);
+                }
+                if (preference != null) {
+                    Boolean stored = preference.getNow(null);
+                    if (stored != null) {
+                        isBedrockPlayer = stored;
+                        state.setStoredPreference(true);
+                    } else if (!preference.isDone()) {
+                        // Still loading: join with the detected mode, switch when it arrives
+                        preference.thenAccept(late -> {
+                            if (late != null && isEnabled()) {
+                                workScheduler.submitAsync(WorkClass.CRITICAL, () -> applyStoredPreference(playerId, late));
+                            }
+                        });
+                    }
+                }
             }
             
-            // Use PvP detection system
-            if (pvpDetectionSystem != null) {
-                pvpDetectionSystem.handlePvPEvent(attacker, victim);
+            if (isBedrockPlayer) {
+                // Bedrock player detected
+                combatEngine.setBedrockPlayer(state, true);
+                combatEngine.applyCombatMode(state);
+                
+                // Send welcome message if enabled
+                if (config.isWelcomeMessageEnabled()) {
+                    String message = config.getWelcomeMessage()
+                        .replace("{player}", player.getName());
+                    player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+                }
+                
+                // Start action bar updates if enabled
+                if (actionBarManager != null) {
+                    actionBarManager.startActionBarUpdates(player);
+                }
+                
+            } else {
+                // Java player - ensure they're not in bedrock set and apply Java combat
+                combatEngine.setBedrockPlayer(state, false);
+                combatEngine.applyCombatMode(state);
             }
             
-            // Both players enter PvP mode (temporary Java combat)
-            enterPvPMode(attacker);
-            enterPvPMode(victim);
-            
-            // Save combat statistics
-            if (databaseManager != null) {
-                databaseManager.saveCombatStatistic(attacker.getUniqueId(), "pvp_attack", 1);
-                databaseManager.saveCombatStatistic(victim.getUniqueId(), "pvp_damaged", 1);
+            // Show the boss bar of the detected platform
+            if (bossBarManager != null) {
+                bossBarManager.requestUpdate(state);
             }
+        } finally {
+            performanceMonitor.recordTime(Operation.PLAYER_JOIN_COMPLETE, startNanos);
         }
     }
-
+    
     /**
-     * Handles player death - immediately revert survivors back to their preferred combat mode
+     * Starts loading the player's stored preference and evaluates the username rules
+     * off the main thread, so the join handler only has to read both from memory
      */
-    @EventHandler
-    public void onPlayerDeath(PlayerDeathEvent event) {
-        Player deadPlayer = event.getEntity();
-        UUID deadPlayerId = deadPlayer.getUniqueId();
-        
-        // Remove dead player from PvP mode
-        exitPvPMode(deadPlayer);
-        
-        // Check for nearby players who might have been in combat with the dead player
-        for (Player nearbyPlayer : deadPlayer.getWorld().getPlayers()) {
-            if (nearbyPlayer.getUniqueId().equals(deadPlayerId)) continue;
-            
-            double distance = nearbyPlayer.getLocation().distance(deadPlayer.getLocation());
-            if (distance <= 20.0 && playersInPvP.contains(nearbyPlayer.getUniqueId())) {
-                // Start timeout for nearby players
-                startPvPTimeout(nearbyPlayer);
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        long startNanos = System.nanoTime();
+        try {
+            if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+                return;
+            }
+            // Players still in the offline cache need no detection or database read; if
+            // their entry is gone by the join, the join loads the preference itself
+            if (offlinePlayerCache.contains(event.getUniqueId())) {
+                return;
+            }
+            if (integrationManager != null) {
+                integrationManager.preparePlayer(event.getUniqueId(), event.getName());
+            }
+            if (databaseManager != null) {
+                databaseManager.preloadPlayerData(event.getUniqueId());
             }
+        } finally {
+            performanceMonitor.recordTime(Operation.PLAYER_PRE_LOGIN, startNanos);
         }
     }
-
+    
     /**
-     * Clean up player data when they leave
+     * Drops the pre-login results of a login another plugin or the server denied
+     * after pre-login, e.g. for a full server or the whitelist
      */
-    @EventHandler
-    public void onPlayerQuit(PlayerQuitEvent event) {
-        Player player = event.getPlayer();
-        UUID playerId = player.getUniqueId();
-        
-        // Clean up PvP state
-        playersInPvP.remove(playerId);
-        
-        // Cancel any pending timeout tasks
-        BukkitRunnable task = pvpTimeoutTasks.remove(playerId);
-        if (task != null) {
-            task.cancel();
-        }
-        
-        // Stop action bar updates
-        if (actionBarManager != null) {
-            actionBarManager.stopActionBarUpdates(player);
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED && integrationManager != null) {
+            integrationManager.forgetPlayer(event.getPlayer().getUniqueId());
         }
-        
-        // Note: We keep bedrockPlayers data for when they rejoin
     }
-
+    
     /**
-     * Handles player interactions to apply cooldown to all swings during PvP mode
-     * This ensures Bedrock players experience consistent cooldown during PvP, not just on hits
+     * Applies a stored preference that finished loading after the player joined
      */
-    @EventHandler
-    public void onPlayerInteract(PlayerInteractEvent event) {
-        Player player = event.getPlayer();
-        UUID playerId = player.getUniqueId();
-        
-        // Only process left-click air/block actions (swings)
-        if (event.getAction() != Action.LEFT_CLICK_AIR && event.getAction() != Action.LEFT_CLICK_BLOCK) {
+    private void applyStoredPreference(UUID playerId, boolean prefersBedrock) {
+        PlayerCombatState state = combatEngine.getState(playerId);
+        if (state == null) {
             return;
         }
+        Player player = (Player) state.getHandle();
+        state.setStoredPreference(true);
         
-        // Only apply to Bedrock players who are currently in PvP mode
-        if (!bedrockPlayers.contains(playerId) || !playersInPvP.contains(playerId)) {
-            return;
-        }
-        
-        // Check if PvP detection is enabled
-        if (!configManager.isPvpDetectionEnabled()) {
-            return;
-        }
-        
-        // Record performance metrics
-        if (performanceMonitor != null) {
-            performanceMonitor.recordOperation("pvp_swing");
+        if (combatEngine.setBedrockPlayer(state, prefersBedrock) && actionBarManager != null) {
+            if (prefersBedrock) {
+                actionBarManager.startActionBarUpdates(player);
+            } else {
+                actionBarManager.stopActionBarUpdates(player);
+            }
         }
-        
-        // Refresh PvP timeout since player is actively swinging during PvP
-        startPvPTimeout(player);
-        
-        // The cooldown effect is already applied by being in PvP mode (Java combat)
-        // This event handler ensures the timeout is refreshed on all swings, not just hits
-        getLogger().fine("PvP swing detected for Bedrock player: " + player.getName());
+        combatEngine.applyCombatMode(state);
     }
-
+    
     /**
-     * Applies the appropriate combat mode based on player preference and current state
+     * Handles PvP detection - when a player attacks another player
      */
-    private void applyCombatMode(Player player) {
-        UUID playerId = player.getUniqueId();
-        
-        if (playersInPvP.contains(playerId)) {
-            // Player is in PvP - force Java combat for fairness
-            setJavaCombat(player);
-        } else if (bedrockPlayers.contains(playerId)) {
-            // Player prefers Bedrock combat and not in PvP
-            setBedrockCombat(player);
-        } else {
-            // Java player or default
-            setJavaCombat(player);
+    @EventHandler
+    public void onPlayerDamagePlayer(EntityDamageByEntityEvent event) {
+        long startNanos = System.nanoTime();
+        try {
+            ConfigSnapshot config = configManager.getSnapshot();
+            if (!config.isPvpDetectionEnabled()) return;
+            
+            if (event.getDamager() instanceof Player && event.getEntity() instanceof Player) {
+                Player attacker = (Player) event.getDamager();
+                Player victim = (Player) event.getEntity();
+                
+                // Record performance metrics
+                if (performanceMonitor != null) {
+                    performanceMonitor.recordOperation(Operation.PVP_EVENT);
+                }
+                
+                // NPCs and other untracked players have no state
+                PlayerCombatState attackerState = combatEngine.getState(attacker.getUniqueId());
+                PlayerCombatState victimState = combatEngine.getState(victim.getUniqueId());
+                
+                // Nobody fights in the wrong mode: finish joins still waiting in the queue
+                if (attackerState != null) {
+                    joinQueue.completeNow(attackerState);
+                }
+                if (victimState != null) {
+                    joinQueue.completeNow(victimState);
+                }
+                
+                // Check if PvP is allowed in this world
+                WorldCombatPolicy policy = attackerState != null
+                    ? attackerState.getPolicy() : worldPolicyTable.getPolicy(attacker.getWorld());
+                if (!policy.isPvpDetectionEnabled()) {
+                    return;
+                }
+                
+                // Use PvP detection system
+                if (pvpDetectionSystem != null) {
+                    pvpDetectionSystem.handlePvPEvent(attacker, victim);
+                }
+                
+                // Both players enter PvP mode (temporary Java combat)
+                if (attackerState != null) {
+                    combatEngine.enterPvPMode(attackerState, config.getPvpTimeoutTicks());
+                }
+                if (victimState != null) {
+                    combatEngine.enterPvPMode(victimState, config.getPvpTimeoutTicks());
+                }
+                
+                // Bedrock players standing close to the fight switch to Java combat as well
+                if (config.getBystanderRadius() > 0) {
+                    tagBystanders(attacker, config);
+                }
+                
+                // Swings of the players now in PvP must be seen from this tick on
+                updateDynamicListeners();
+                
+                // Save combat statistics
+                if (databaseManager != null) {
+                    databaseManager.saveCombatStatistic(attacker.getUniqueId(), "pvp_attack", 1);
+                    databaseManager.saveCombatStatistic(victim.getUniqueId(), "pvp_damaged", 1);
+                }
+            }
+        } finally {
+            performanceMonitor.recordTime(Operation.PLAYER_DAMAGE, startNanos);
         }
     }
-
+    
     /**
-     * Puts a player into PvP mode (temporary Java combat)
+     * Clean up player data when they leave
      */
-    private void enterPvPMode(Player player) {
-        UUID playerId = player.getUniqueId();
-        
-        if (!playersInPvP.contains(playerId)) {
-            playersInPvP.add(playerId);
-            setJavaCombat(player);
-            
-            if (bedrockPlayers.contains(playerId)) {
-                player.sendMessage(ChatColor.translateAlternateColorCodes('&', "&c&lPvP Mode &7&l> &cTemporary Java combat for fair PvP"));
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        long startNanos = System.nanoTime();
+        try {
+            Player player = event.getPlayer();
+            UUID playerId = player.getUniqueId();
+            
+            // Keep platform and mode for a quick rejoin, then drop the whole state at once
+            PlayerCombatState state = combatEngine.removePlayer(playerId);
+            boolean joinCompleted = state != null && !joinQueue.cancel(state);
+            if (state != null) {
+                actionBarManager.removePlayer(state);
+                bossBarManager.removePlayer(state);
+            }
+            if (joinCompleted && configManager.getSnapshot().isPlayerDetectionEnabled()) {
+                offlinePlayerCache.put(playerId, state.isBedrockPlatform(), state.isBedrock(), state.hasStoredPreference());
             }
             
-            // Update action bar to show PvP status
-            if (actionBarManager != null) {
-                actionBarManager.updatePlayerStatus(player);
+            // A join that never ran leaves its pre-login result behind
+            if (integrationManager != null) {
+                integrationManager.forgetPlayer(playerId);
             }
             
-            // Cancel any existing timeout
-            BukkitRunnable existingTask = pvpTimeoutTasks.remove(playerId);
-            if (existingTask != null) {
-                existingTask.cancel();
+            // Drop the PvP session and its attacker links
+            if (pvpDetectionSystem != null) {
+                pvpDetectionSystem.removeFromPvP(player);
             }
+        } finally {
+            performanceMonitor.recordTime(Operation.PLAYER_QUIT, startNanos);
         }
-        
-        // Always restart the timeout when PvP activity occurs
-        startPvPTimeout(player);
     }
-
+    
     /**
-     * Removes a player from PvP mode and reverts to their preferred combat
+     * Re-caches the world policy and re-applies the combat mode after a world change
      */
-    private void exitPvPMode(Player player) {
-        UUID playerId = player.getUniqueId();
-        
-        if (playersInPvP.remove(playerId)) {
-            // Cancel timeout task
-            BukkitRunnable task = pvpTimeoutTasks.remove(playerId);
-            if (task != null) {
-                task.cancel();
-            }
+    @EventHandler
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        Player player = event.getPlayer();
+        PlayerCombatState state = combatEngine.getState(player.getUniqueId());
+        if (state != null) {
+            state.setPolicy(worldPolicyTable.getPolicy(player.getWorld()));
+            combatEngine.applyCombatMode(state);
+        }
+    }
+    
+    /**
+     * Resolves the combat policy of a newly loaded world
+     */
+    @EventHandler
+    public void onWorldLoad(WorldLoadEvent event) {
+        worldPolicyTable.loadWorld(event.getWorld());
+    }
+    
+    /**
+     * Drops the combat policy of an unloaded world
+     */
+    @EventHandler
+    public void onWorldUnload(WorldUnloadEvent event) {
+        worldPolicyTable.unloadWorld(event.getWorld());
+    }
+    
+    /**
+     * Critical work, run first every tick: completes a budgeted share of queued joins,
+     * advances the combat engine, which reverts players whose PvP timed out, and finally
+     * applies the combat modes requested this tick
+     */
+    private void tickCombat() {
+        long startNanos = System.nanoTime();
+        try {
+            // Deferred joins first, so their combat modes go out with this tick's flush
+            joinQueue.drain();
             
-            // Revert to preferred combat mode
-            applyCombatMode(player);
+            combatEngine.tick();
             
-            if (bedrockPlayers.contains(playerId)) {
-                player.sendMessage(ChatColor.translateAlternateColorCodes('&', "&a&lPvE Mode &7&l> &aController-friendly combat restored"));
-            }
+            combatEngine.flushModes();
             
-            // Update action bar to show PvE status
-            if (actionBarManager != null) {
-                actionBarManager.updatePlayerStatus(player);
-            }
+            // Drop the PvP-only listeners once the last fight timed out
+            updateDynamicListeners();
+        } finally {
+            performanceMonitor.recordTime(Operation.COMBAT_TICK, startNanos);
         }
     }
-
+    
     /**
-     * Starts a timeout task to exit PvP mode after inactivity
+     * Requests Java Edition combat (visible attack indicator) for the end of the tick
+     * @param state The player to modify
      */
-    private void startPvPTimeout(Player player) {
-        UUID playerId = player.getUniqueId();
-        
-        // Cancel existing timeout
-        BukkitRunnable existingTask = pvpTimeoutTasks.remove(playerId);
-        if (existingTask != null) {
-            existingTask.cancel();
-        }
-        
-        // Start new timeout
-        BukkitRunnable timeoutTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                pvpTimeoutTasks.remove(playerId);
-                if (player.isOnline()) {
-                    exitPvPMode(player);
-                }
+    private void setJavaCombat(PlayerCombatState state) {
+        combatEngine.requestMode(state, CombatMode.JAVA);
+    }
+    
+    /**
+     * Legacy method for backward compatibility
+     * @deprecated Use setJavaCombat instead
+     */
+    @Deprecated
+    private void resetCombat(PlayerCombatState state) {
+        setJavaCombat(state);
+    }
+    
+    /**
+     * Puts the Bedrock players within pvp.detection.bystander-radius of an attacker into
+     * PvP mode; the fighters themselves are already in it
+     */
+    private void tagBystanders(Player attacker, ConfigSnapshot config) {
+        Location center = attacker.getLocation(bystanderCenter);
+        spatialIndex.queryRadius(center.getWorld(), center.getX(), center.getY(), center.getZ(),
+            config.getBystanderRadius(), attacker.getUniqueId(), bystanders);
+        for (int i = 0; i < bystanders.size(); i++) {
+            PlayerCombatState state = combatEngine.getState(bystanders.get(i).getUniqueId());
+            if (state != null && state.isBedrock() && !state.isJoinPending() && state.getPolicy().isPvpDetectionEnabled()) {
+                combatEngine.enterPvPMode(state, config.getPvpTimeoutTicks());
             }
-        };
-        
-        pvpTimeoutTasks.put(playerId, timeoutTask);
-        timeoutTask.runTaskLater(this, PVP_TIMEOUT_SECONDS * 20L); // Convert to ticks
+        }
+        bystanders.clear();
     }
-
+    
     /**
-     * Sets a player's attack speed to Bedrock Edition levels and hides attack indicator
-     * @param player The player to modify
+     * Tracks player positions in the spatial index only while bystanders are tagged
+     * (pvp.detection.bystander-radius above 0)
      */
-    private void setBedrockCombat(Player player) {
-        // For Bedrock combat, we want fast attacks and hidden indicator
-        // Set to extremely high attack speed to hide the indicator completely
-        hideAttackIndicator(player);
+    public void reloadProximitySettings() {
+        spatialIndexListener.setRegistered(configManager.getSnapshot().getBystanderRadius() > 0);
     }
-
+    
     /**
-     * Sets a player's attack speed to Java Edition default and shows attack indicator
-     * @param player The player to modify
+     * Registers the PvP-only listeners while someone they apply to is in PvP mode,
+     * and unregisters them otherwise
      */
-    private void setJavaCombat(Player player) {
-        // For Java combat, we want normal attack speed and visible indicator
-        showAttackIndicator(player);
+    private void updateDynamicListeners() {
+        if (swingListener == null) {
+            return;
+        }
+        swingListener.setRegistered(combatEngine.getBedrockPlayersInPvPCount() > 0);
+        deathListener.setRegistered(combatEngine.getPlayersInPvPCount() > 0);
     }
-
+    
     /**
-     * Sets a player's attack speed to the specified value
-     * @param player The player to modify
-     * @param speed The attack speed to set
+     * Creates the combat state of an online player
      */
-    private void setAttackSpeed(Player player, double speed) {
-        try {
-            AttributeInstance attr = player.getAttribute(Attribute.GENERIC_ATTACK_SPEED);
-            if (attr != null) {
-                // Remove any existing modifiers first
-                attr.getModifiers().forEach(attr::removeModifier);
-                attr.setBaseValue(speed);
-            }
-        } catch (Exception e) {
-            // Silently handle any version compatibility issues
-            getLogger().fine("Could not set attack speed for " + player.getName() + ": " + e.getMessage());
+    private PlayerCombatState trackPlayer(Player player) {
+        PlayerCombatState state = combatEngine.addPlayer(player.getUniqueId(), player);
+        state.setPolicy(worldPolicyTable.getPolicy(player.getWorld()));
+        if (actionBarManager != null) {
+            actionBarManager.addPlayer(state);
         }
+        if (bossBarManager != null) {
+            bossBarManager.requestUpdate(state);
+        }
+        return state;
     }
-
+    
     /**
-     * Legacy method for backward compatibility
-     * @deprecated Use setJavaCombat instead
+     * Re-resolves all world policies from the current configuration and
+     * re-applies the combat mode of every online player
      */
-    @Deprecated
-    private void resetCombat(Player player) {
-        setJavaCombat(player);
+    public void reloadWorldPolicies() {
+        worldPolicyTable.rebuild(getServer().getWorlds());
+        combatEngine.invalidateModes();
+        for (PlayerCombatState state : combatEngine.getStates()) {
+            state.setPolicy(worldPolicyTable.getPolicy(((Player) state.getHandle()).getWorld()));
+            combatEngine.applyCombatMode(state);
+        }
     }
-
+    
     /**
-     * Hides the attack indicator GUI for a cleaner controller experience
-     * @param player The player to hide the indicator for
+     * Re-detects the platform of every online player (e.g., after the integrations reload);
+     * with player detection enabled, players whose platform flipped and who have no
+     * stored preference switch combat mode
      */
-    private void hideAttackIndicator(Player player) {
-        try {
-            AttributeInstance attr = player.getAttribute(Attribute.GENERIC_ATTACK_SPEED);
-            if (attr != null) {
-                // Set attack speed to an extremely high value to make the indicator effectively invisible
-                // This approach makes the cooldown so fast that the indicator appears constantly full
-                attr.setBaseValue(1000.0);
+    public void reclassifyPlayers() {
+        boolean detectionEnabled = configManager.getSnapshot().isPlayerDetectionEnabled();
+        for (PlayerCombatState state : combatEngine.getStates()) {
+            if (state.isJoinPending()) {
+                // Detected with the reloaded integrations when the join completes
+                continue;
+            }
+            boolean bedrockPlatform = integrationManager.isBedrockPlayer((Player) state.getHandle());
+            if (bedrockPlatform == state.isBedrockPlatform()) {
+                continue;
+            }
+            state.setBedrockPlatform(bedrockPlatform);
+            if (detectionEnabled && !state.hasStoredPreference()) {
+                combatEngine.setBedrockPlayer(state, bedrockPlatform);
+                combatEngine.applyCombatMode(state);
+            }
+            if (actionBarManager != null) {
+                actionBarManager.requestUpdate(state);
+            }
+            if (bossBarManager != null) {
+                bossBarManager.requestUpdate(state);
             }
-        } catch (Exception e) {
-            // Silently handle any version compatibility issues
-            getLogger().fine("Could not hide attack indicator for " + player.getName() + ": " + e.getMessage());
         }
     }
-
+    
     /**
-     * Shows the attack indicator GUI for Java combat and PvP
-     * @param player The player to show the indicator for
+     * Applies the join queue settings (performance.optimization.batch-*)
      */
-    private void showAttackIndicator(Player player) {
-        try {
-            AttributeInstance attr = player.getAttribute(Attribute.GENERIC_ATTACK_SPEED);
-            if (attr != null) {
-                // Restore normal Java attack speed to show the indicator properly
-                attr.setBaseValue(JAVA_ATTACK_SPEED);
+    public void reloadJoinSettings() {
+        joinBatching = configManager.isBatchProcessingEnabled();
+        joinQueue.setLimits(configManager.getBatchSize(), configManager.getBatchBudgetMicros());
+        if (!joinBatching) {
+            // Finish whatever is still queued before joins complete inline again
+            while (joinQueue.getDepth() > 0) {
+                joinQueue.drain();
             }
-        } catch (Exception e) {
-            // Silently handle any version compatibility issues
-            getLogger().fine("Could not show attack indicator for " + player.getName() + ": " + e.getMessage());
         }
     }
-
+    
+    /**
+     * Applies the work scheduler settings (performance.optimization.tick-budget-ms,
+     * performance.limits.cleanup-interval)
+     */
+    public void reloadSchedulerSettings() {
+        workScheduler.setBudgetMillis(configManager.getTickBudgetMillis());
+        if (cacheSweep != null) {
+            cacheSweep.cancel();
+        }
+        long sweepTicks = Math.max(1, configManager.getCleanupInterval()) * 1200L;
+        cacheSweep = workScheduler.scheduleRepeating(WorkClass.MAINTENANCE, offlinePlayerCache::purgeExpired, sweepTicks, sweepTicks);
+    }
+    
+    /**
+     * Applies the offline player cache settings (performance.optimization.cache-*,
+     * performance.limits.max-cache-entries)
+     */
+    public void reloadCacheSettings() {
+        int maxEntries = configManager.isModeCachingEnabled() ? configManager.getMaxCacheEntries() : 0;
+        offlinePlayerCache.setLimits(configManager.getCacheDuration() * 60000L, maxEntries);
+    }
+    
     // Getter methods for accessing the new systems
     public ConfigManager getConfigManager() {
         return configManager;
@@ -585,19 +820,71 @@ public class BedrockCombatPlugin extends JavaPlugin implements Listener, TabComp
         return actionBarManager;
     }
     
+    public BossBarManager getBossBarManager() {
+        return bossBarManager;
+    }
+    
+    public WorldPolicyTable getWorldPolicyTable() {
+        return worldPolicyTable;
+    }
+    
+    public CombatModeApplier getCombatModeApplier() {
+        return combatModeApplier;
+    }
+    
+    public PlayerSpatialIndex getSpatialIndex() {
+        return spatialIndex;
+    }
+    
+    public CombatEngine getCombatEngine() {
+        return combatEngine;
+    }
+    
+    public OfflinePlayerCache getOfflinePlayerCache() {
+        return offlinePlayerCache;
+    }
+    
+    public WorkScheduler getWorkScheduler() {
+        return workScheduler;
+    }
+    
+    public JoinQueue getJoinQueue() {
+        return joinQueue;
+    }
+    
+    public PvPSwingListener getSwingListener() {
+        return swingListener;
+    }
+    
+    public PvPDeathListener getDeathListener() {
+        return deathListener;
+    }
+    
+    public SpatialIndexListener getSpatialIndexListener() {
+        return spatialIndexListener;
+    }
+    
+    /**
+     * Gets the listeners that are registered only while needed
+     */
+    public List<DynamicListener> getDynamicListeners() {
+        return swingListener != null
+            ? Arrays.asList(swingListener, deathListener, spatialIndexListener) : Collections.emptyList();
+    }
+    
     // Legacy getter methods for backward compatibility
     public Set<UUID> getBedrockPlayers() {
-        return new HashSet<>(bedrockPlayers);
+        return combatEngine.getBedrockPlayers();
     }
     
     public Set<UUID> getPlayersInPvP() {
-        return new HashSet<>(playersInPvP);
+        return combatEngine.getPlayersInPvP();
     }
     
     public boolean isPvpDetectionEnabled() {
         return configManager != null ? configManager.isPvpDetectionEnabled() : pvpDetectionEnabled;
     }
-
+    
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         // Commands are now handled by ConfigCommand
@@ -617,7 +904,7 @@ public class BedrockCombatPlugin extends JavaPlugin implements Listener, TabComp
         ConfigCommand configCommand = new ConfigCommand(this);
         return configCommand.onCommand(sender, command, label, args);
     }
-
+    
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         // Tab completion is now handled by ConfigCommand
@@ -0,0 +1,47 @@
+package io.github.chiefboyardee.bedrockcombat.cache;
+
+/**
+ * What the plugin knew about a player when they logged out
+ */
+public final class CachedPlayerState {
+    
+    private final boolean bedrockPlatform;
+    private final boolean prefersBedrock;
+    private final boolean storedPreference;
+    private final long cachedAt;
+    
+    public CachedPlayerState(boolean bedrockPlatform, boolean prefersBedrock, boolean storedPreference, long cachedAt) {
+        this.bedrockPlatform = bedrockPlatform;
+        this.prefersBedrock = prefersBedrock;
+        this.storedPreference = storedPreference;
+        this.cachedAt = cachedAt;
+    }
+    
+    /**
+     * Whether the player was detected as a Bedrock player
+     */
+    public boolean isBedrockPlatform() {
+        return bedrockPlatform;
+    }
+    
+    /**
+     * Whether the player had Bedrock combat (detection or a stored preference)
+     */
+    public boolean prefersBedrock() {
+        return prefersBedrock;
+    }
+    
+    /**
+     * Whether the combat preference came from the database rather than detection
+     */
+    public boolean hasStoredPreference() {
+        return storedPreference;
+    }
+    
+    /**
+     * When the state was cached, in System.currentTimeMillis() time
+     */
+    public long getCachedAt() {
+        return cachedAt;
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.chiefboyardee.bedrockcombat.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Size- and time-bounded cache of offline players' state, so a player who
+ * rejoins soon gets their platform and combat mode back without detection
+ * or a database read. Entries are only used by taking them out on rejoin, so
+ * logout order is least-recently-used order: the oldest are evicted once the
+ * cache is full, and entries older than the TTL count as misses.
+ * Thread-safe: pre-login runs off the main thread.
+ */
+public class OfflinePlayerCache {
+    
+    private final Map<UUID, CachedPlayerState> entries = new LinkedHashMap<>();
+    private long ttlMillis;
+    private int maxEntries;
+    
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    
+    /**
+     * @param ttlMillis how long an offline player's state is kept
+     * @param maxEntries most entries kept at once; 0 disables the cache
+     */
+    public OfflinePlayerCache(long ttlMillis, int maxEntries) {
+        setLimits(ttlMillis, maxEntries);
+    }
+    
+    /**
+     * Applies new limits (e.g., after a reload), evicting whatever no longer fits
+     */
+    public synchronized void setLimits(long ttlMillis, int maxEntries) {
+        this.ttlMillis = Math.max(0L, ttlMillis);
+        this.maxEntries = Math.max(0, maxEntries);
+        purgeExpired(System.currentTimeMillis());
+        evictOverflow();
+    }
+    
+    /**
+     * Caches the state of a player who just logged out
+     */
+    public synchronized void put(UUID playerId, boolean bedrockPlatform, boolean prefersBedrock, boolean storedPreference) {
+        if (maxEntries == 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        purgeExpired(now);
+        // Re-inserted so the entry moves to the young end
+        entries.remove(playerId);
+        entries.put(playerId, new CachedPlayerState(bedrockPlatform, prefersBedrock, storedPreference, now));
+        evictOverflow();
+    }
+    
+    /**
+     * Removes and returns a rejoining player's cached state
+     * @return the cached state, or null on a miss (never cached, evicted or expired)
+     */
+    public synchronized CachedPlayerState take(UUID playerId) {
+        CachedPlayerState state = entries.remove(playerId);
+        if (state != null && isExpired(state, System.currentTimeMillis())) {
+            expirations++;
+            state = null;
+        }
+        if (state == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return state;
+    }
+    
+    /**
+     * Checks for a live entry without counting a hit or miss
+     */
+    public synchronized boolean contains(UUID playerId) {
+        CachedPlayerState state = entries.get(playerId);
+        return state != null && !isExpired(state, System.currentTimeMillis());
+    }
+    
+    /**
+     * Drops every cached entry
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+    
+    /**
+     * Drops entries that outlived the TTL, which are otherwise only dropped on the next logout
+     */
+    public synchronized void purgeExpired() {
+        purgeExpired(System.currentTimeMillis());
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public synchronized int getMaxEntries() {
+        return maxEntries;
+    }
+    
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    /**
+     * Gets the number of entries evicted because the cache was full
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    /**
+     * Gets the number of entries dropped because they outlived the TTL
+     */
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+    
+    private boolean isExpired(CachedPlayerState state, long now) {
+        return now - state.getCachedAt() >= ttlMillis;
+    }
+    
+    /**
+     * Drops expired entries from the head, where the oldest are
+     */
+    private void purgeExpired(long now) {
+        Iterator<CachedPlayerState> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (!isExpired(iterator.next(), now)) {
+                return;
+            }
+            iterator.remove();
+            expirations++;
+        }
+    }
+    
+    private void evictOverflow() {
+        Iterator<UUID> iterator = entries.keySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions++;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.chiefboyardee.bedrockcombat.combat;
+
+import io.github.chiefboyardee.bedrockcombat.BedrockCombatPlugin;
+import io.github.chiefboyardee.bedrockcombat.engine.CombatEffects;
+import io.github.chiefboyardee.bedrockcombat.engine.PlayerCombatState;
+import io.github.chiefboyardee.bedrockcombat.ui.ActionBarManager;
+import io.github.chiefboyardee.bedrockcombat.ui.BossBarManager;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+
+/**
+ * Carries out combat engine effects on a Bukkit server.
+ * Each state's handle is its Bukkit player, so no lookup by UUID is needed;
+ * the engine drops effects for players who already left.
+ */
+public class BukkitCombatEffects implements CombatEffects {
+    
+    private final BedrockCombatPlugin plugin;
+    private final CombatModeApplier combatModeApplier;
+    
+    public BukkitCombatEffects(BedrockCombatPlugin plugin, CombatModeApplier combatModeApplier) {
+        this.plugin = plugin;
+        this.combatModeApplier = combatModeApplier;
+    }
+    
+    @Override
+    public void setCombatMode(PlayerCombatState state, CombatMode mode) {
+        combatModeApplier.apply((Player) state.getHandle(), mode);
+        // The boss bar shows the applied mode
+        BossBarManager bossBarManager = plugin.getBossBarManager();
+        if (bossBarManager != null) {
+            bossBarManager.requestUpdate(state);
+        }
+    }
+    
+    @Override
+    public void sendMessage(PlayerCombatState state, String message) {
+        ((Player) state.getHandle()).sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+    }
+    
+    @Override
+    public void updateHud(PlayerCombatState state) {
+        // Created after the engine during startup
+        ActionBarManager actionBarManager = plugin.getActionBarManager();
+        if (actionBarManager != null) {
+            actionBarManager.requestUpdate(state);
+        }
+        BossBarManager bossBarManager = plugin.getBossBarManager();
+        if (bossBarManager != null) {
+            bossBarManager.requestUpdate(state);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.chiefboyardee.bedrockcombat.combat;
+
+/**
+ * Combat modes the plugin can apply to a player
+ */
+public enum CombatMode {
+    
+    /** Traditional Java combat with attack cooldown */
+    JAVA,
+    
+    /** Controller-friendly combat without visible cooldown */
+    BEDROCK,
+    
+    /** Attack speed from combat.attack-speeds.custom-mode */
+    CUSTOM
+}
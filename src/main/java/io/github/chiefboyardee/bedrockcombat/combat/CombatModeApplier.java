@@ -0,0 +1,57 @@
+package io.github.chiefboyardee.bedrockcombat.combat;
+
+import io.github.chiefboyardee.bedrockcombat.config.ConfigManager;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeInstance;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Applies combat modes to players through the attack speed attribute.
+ * Every call costs an attribute packet (translated again by Geyser), so callers
+ * only apply real changes: the {@link io.github.chiefboyardee.bedrockcombat.engine.CombatEngine}
+ * batches requests per tick and tracks each player's applied mode.
+ */
+public class CombatModeApplier {
+    
+    /** Attack speed that makes the cooldown indicator effectively invisible */
+    private static final double BEDROCK_ATTACK_SPEED = 1000.0;
+    
+    /** Java Edition default attack speed */
+    private static final double JAVA_ATTACK_SPEED = 4.0;
+    
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    
+    public CombatModeApplier(JavaPlugin plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+    }
+    
+    /**
+     * Writes the attack speed of a combat mode to a player
+     */
+    public void apply(Player player, CombatMode mode) {
+        try {
+            AttributeInstance attr = player.getAttribute(Attribute.GENERIC_ATTACK_SPEED);
+            if (attr != null) {
+                attr.setBaseValue(getAttackSpeed(mode));
+            }
+        } catch (Exception e) {
+            // Silently handle any version compatibility issues
+            plugin.getLogger().fine("Could not set " + mode + " combat for " + player.getName() + ": " + e.getMessage());
+        }
+    }
+    
+    private double getAttackSpeed(CombatMode mode) {
+        switch (mode) {
+            case BEDROCK:
+                // Makes the cooldown so fast that the indicator appears constantly full
+                return BEDROCK_ATTACK_SPEED;
+            case CUSTOM:
+                return configManager.getSnapshot().getCustomAttackSpeed();
+            default:
+                return JAVA_ATTACK_SPEED;
+        }
+    }
+}
@@ -1,6 +1,16 @@
 package io.github.chiefboyardee.bedrockcombat.commands;
 
 import io.github.chiefboyardee.bedrockcombat.BedrockCombatPlugin;
+import io.github.chiefboyardee.bedrockcombat.cache.OfflinePlayerCache;
+import io.github.chiefboyardee.bedrockcombat.database.StatisticsWriter;
+import io.github.chiefboyardee.bedrockcombat.engine.CombatEngine;
+import io.github.chiefboyardee.bedrockcombat.engine.JoinQueue;
+import io.github.chiefboyardee.bedrockcombat.listeners.DynamicListener;
+import io.github.chiefboyardee.bedrockcombat.performance.LatencyHistogram;
+import io.github.chiefboyardee.bedrockcombat.scheduler.WorkClass;
+import io.github.chiefboyardee.bedrockcombat.scheduler.WorkScheduler;
+import io.github.chiefboyardee.bedrockcombat.ui.ActionBarManager;
+import io.github.chiefboyardee.bedrockcombat.ui.BossBarManager;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -60,6 +70,14 @@ public class ConfigCommand implements CommandExecutor, TabCompleter {
         try {
             plugin.getConfigManager().reloadConfig();
             plugin.getIntegrationManager().reload();
+            plugin.reclassifyPlayers();
+            plugin.getPvPDetectionSystem().initialize();
+            plugin.reloadWorldPolicies();
+            plugin.reloadCacheSettings();
+            plugin.reloadJoinSettings();
+            plugin.reloadSchedulerSettings();
+            plugin.reloadProximitySettings();
+            plugin.getBossBarManager().reload();
             sender.sendMessage(ChatColor.GREEN + "Configuration reloaded successfully!");
         } catch (Exception e) {
             sender.sendMessage(ChatColor.RED + "Failed to reload configuration: " + e.getMessage());
@@ -69,12 +87,35 @@ public class ConfigCommand implements CommandExecutor, TabCompleter {
     private void handleStatus(CommandSender sender) {
         sender.sendMessage(ChatColor.GOLD + "=== BedrockCombatCompat Status ===");
         sender.sendMessage(ChatColor.YELLOW + "Plugin Version: " + plugin.getDescription().getVersion());
-        sender.sendMessage(ChatColor.YELLOW + "Bedrock Players Online: " + plugin.getBedrockPlayers().size());
-        sender.sendMessage(ChatColor.YELLOW + "Players in PvP: " + plugin.getPlayersInPvP().size());
+        CombatEngine engine = plugin.getCombatEngine();
+        sender.sendMessage(ChatColor.YELLOW + "Bedrock Players Online: " + engine.getBedrockPlayerCount());
+        sender.sendMessage(ChatColor.YELLOW + "Players in PvP: " + engine.getPlayersInPvPCount());
+        sender.sendMessage(ChatColor.YELLOW + "Worlds With Combat Policies: " + plugin.getWorldPolicyTable().getWorldCount());
+        sender.sendMessage(ChatColor.YELLOW + "Tracked PvP Sessions: " + plugin.getPvPDetectionSystem().getPlayersInPvPCount());
         sender.sendMessage(ChatColor.YELLOW + "PvP Detection: " + (plugin.isPvpDetectionEnabled() ? "Enabled" : "Disabled"));
         sender.sendMessage(ChatColor.YELLOW + "Database: " + (plugin.getDatabaseManager().isEnabled() ? "Enabled" : "Disabled"));
         sender.sendMessage(ChatColor.YELLOW + "Performance Monitor: " + (plugin.getPerformanceMonitor().isEnabled() ? "Enabled" : "Disabled"));
         sender.sendMessage(ChatColor.YELLOW + "Floodgate Integration: " + (plugin.getIntegrationManager().isFloodgateEnabled() ? "Available" : "Not Available"));
+        sender.sendMessage(ChatColor.YELLOW + "Detection Rules: " + plugin.getIntegrationManager().getActiveRules());
+        sender.sendMessage(ChatColor.YELLOW + "Action Bar Transport: " + plugin.getActionBarManager().getSender().getName());
+        StringBuilder listeners = new StringBuilder();
+        for (DynamicListener listener : plugin.getDynamicListeners()) {
+            if (listeners.length() > 0) {
+                listeners.append(", ");
+            }
+            listeners.append(listener.getName()).append(listener.isRegistered() ? " registered" : " idle")
+                .append(" (").append(listener.getRegistrationCount()).append(" registrations)");
+        }
+        sender.sendMessage(ChatColor.YELLOW + "Dynamic Listeners: " + listeners);
+        BossBarManager bossBars = plugin.getBossBarManager();
+        sender.sendMessage(ChatColor.YELLOW + "Boss Bars: " + (bossBars.isRunning()
+            ? bossBars.getBarCount() + " shared bars for " + bossBars.getViewerCount() + " players ("
+                + bossBars.getCreatedBarCount() + " created, " + bossBars.getMoveCount() + " moves)"
+            : "Disabled"));
+        OfflinePlayerCache cache = plugin.getOfflinePlayerCache();
+        sender.sendMessage(ChatColor.YELLOW + "Offline Player Cache: " + cache.size() + "/" + cache.getMaxEntries()
+            + " (" + cache.getHits() + " hits, " + cache.getMisses() + " misses, "
+            + cache.getEvictions() + " evicted, " + cache.getExpirations() + " expired)");
     }
     
     private void handlePerformance(CommandSender sender) {
@@ -88,6 +129,37 @@ public class ConfigCommand implements CommandExecutor, TabCompleter {
         for (String line : lines) {
             sender.sendMessage(ChatColor.AQUA + line);
         }
+        
+        WorkScheduler scheduler = plugin.getWorkScheduler();
+        sender.sendMessage(ChatColor.AQUA + String.format("Tick budget: %.2fms over %d ticks, %d tasks scheduled",
+            scheduler.getBudgetMillis(), scheduler.getTickCount(), scheduler.getScheduledCount()));
+        for (WorkClass workClass : WorkClass.values()) {
+            sender.sendMessage(ChatColor.AQUA + String.format("  %s: %.1f%% of budget, max %.2fms/tick, %d runs, %d queued, %d dropped, carried over %d ticks",
+                workClass.getDisplayName(), scheduler.getBudgetShare(workClass) * 100.0, scheduler.getMaxTickNanos(workClass) / 1e6,
+                scheduler.getRunCount(workClass), scheduler.getBacklog(workClass), scheduler.getDroppedCount(workClass),
+                scheduler.getCarriedOverTicks(workClass)));
+        }
+        
+        JoinQueue joinQueue = plugin.getJoinQueue();
+        LatencyHistogram joinLatency = joinQueue.getDrainLatency();
+        sender.sendMessage(ChatColor.AQUA + "Join queue: " + joinQueue.getDepth() + " pending (max " + joinQueue.getMaxDepth()
+            + "), " + joinQueue.getCompletedCount() + " completed, " + joinQueue.getForcedCount() + " forced by PvP, "
+            + String.format("wait p50 %.1fms, p99 %.1fms", joinLatency.getPercentile(0.50) / 1e6, joinLatency.getPercentile(0.99) / 1e6));
+        
+        ActionBarManager actionBars = plugin.getActionBarManager();
+        sender.sendMessage(ChatColor.AQUA + "Action bars: " + actionBars.getSentMessageCount() + " sent, "
+            + actionBars.getSkippedMessageCount() + " unchanged skipped");
+        
+        CombatEngine engine = plugin.getCombatEngine();
+        sender.sendMessage(ChatColor.AQUA + "Attribute writes: " + engine.getAppliedModeWrites()
+            + " applied, " + engine.getSkippedModeWrites() + " skipped");
+        
+        StatisticsWriter statistics = plugin.getDatabaseManager().getStatisticsWriter();
+        if (statistics != null) {
+            sender.sendMessage(ChatColor.AQUA + "Statistics: " + statistics.getFlushedRows() + " rows in "
+                + statistics.getFlushedBatches() + " batches, " + statistics.getPendingEntries() + " pending, "
+                + statistics.getDroppedIncrements() + " dropped, " + statistics.getFailedBatches() + " failed batches");
+        }
     }
     
     private void sendHelpMessage(CommandSender sender) {
@@ -1,6 +1,7 @@
 package io.github.chiefboyardee.bedrockcombat.config;
 
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -17,18 +18,20 @@ public class ConfigManager {
     private final JavaPlugin plugin;
     private FileConfiguration config;
     
+    /** Compiled hot-path settings, swapped as a whole on load and reload */
+    private volatile ConfigSnapshot snapshot;
+    
     public ConfigManager(JavaPlugin plugin) {
         this.plugin = plugin;
     }
     
     /**
      * Loads the configuration from config.yml
+     * @throws InvalidConfigurationException if a setting has the wrong type or is out of range
      */
-    public void loadConfig() {
+    public void loadConfig() throws InvalidConfigurationException {
         plugin.saveDefaultConfig();
-        plugin.reloadConfig();
-        this.config = plugin.getConfig();
-        validateConfig();
+        reloadConfig();
     }
     
     /**
@@ -39,21 +42,37 @@ public class ConfigManager {
     }
     
     /**
-     * Reloads the configuration from disk
+     * Reloads the configuration from disk and publishes a new snapshot.
+     * If the new file is invalid the previous configuration stays active.
+     * @throws InvalidConfigurationException if a setting has the wrong type or is out of range
      */
-    public void reloadConfig() {
+    public void reloadConfig() throws InvalidConfigurationException {
+        FileConfiguration previous = this.config;
         plugin.reloadConfig();
         this.config = plugin.getConfig();
-        validateConfig();
+        try {
+            validateConfig();
+            this.snapshot = ConfigSnapshot.compile(config);
+        } catch (InvalidConfigurationException e) {
+            this.config = previous;
+            throw e;
+        }
+    }
+    
+    /**
+     * Gets the compiled settings; read once per event and use its fields
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
     }
     
     // General Settings
     public boolean isPluginEnabled() {
-        return config.getBoolean("general.enabled", true);
+        return snapshot.isPluginEnabled();
     }
     
     public boolean isDebugMode() {
-        return config.getBoolean("general.debug", false);
+        return snapshot.isDebugMode();
     }
     
     public String getLanguage() {
@@ -91,15 +110,15 @@ public class ConfigManager {
     
     // Player Detection Settings
     public boolean isPlayerDetectionEnabled() {
-        return config.getBoolean("detection.enabled", true);
+        return snapshot.isPlayerDetectionEnabled();
     }
     
     public boolean isFloodgateDetectionEnabled() {
-        return config.getBoolean("detection.floodgate.enabled", true);
+        return snapshot.isFloodgateDetectionEnabled();
     }
     
     public String getFloodgatePrefix() {
-        return config.getString("detection.floodgate.prefix", ".");
+        return snapshot.getFloodgatePrefix();
     }
     
     public boolean isManualDetectionEnabled() {
@@ -115,12 +134,12 @@ public class ConfigManager {
     }
     
     public boolean isCustomRulesEnabled() {
-        return config.getBoolean("detection.custom-rules.enabled", false);
+        return snapshot.isCustomRulesEnabled();
     }
     
     // PvP Settings
     public boolean isPvpDetectionEnabled() {
-        return config.getBoolean("pvp.detection.enabled", true);
+        return snapshot.isPvpDetectionEnabled();
     }
     
     public boolean isPvpBalanceEnabled() {
@@ -132,20 +151,20 @@ public class ConfigManager {
     }
     
     public int getPvpTimeout() {
-        return config.getInt("pvp.timeout", 10);
+        return snapshot.getPvpTimeout();
     }
     
     public boolean isPvpNotificationsEnabled() {
-        return config.getBoolean("pvp.notifications.enabled", true);
+        return snapshot.isPvpNotificationsEnabled();
     }
     
     // World Settings
     public boolean isPvpEnabledInWorld(String worldName) {
-        ConfigurationSection worldSection = config.getConfigurationSection("worlds." + worldName);
-        if (worldSection != null) {
-            return worldSection.getBoolean("pvp-enabled", true);
-        }
-        return config.getBoolean("worlds.default.pvp-enabled", true);
+        return snapshot.getWorldPolicy(worldName).isPvpDetectionEnabled();
+    }
+    
+    public WorldCombatPolicy getWorldPolicy(String worldName) {
+        return snapshot.getWorldPolicy(worldName);
     }
     
     public Set<String> getEnabledWorlds() {
@@ -179,15 +198,15 @@ public class ConfigManager {
     
     // UI Settings
     public boolean isWelcomeMessageEnabled() {
-        return config.getBoolean("ui.messages.welcome.enabled", true);
+        return snapshot.isWelcomeMessageEnabled();
     }
     
     public String getWelcomeMessage() {
-        return config.getString("ui.messages.welcome.text", "&a&lBedrockCombat &7> &aController-friendly combat enabled for {player}!");
+        return snapshot.getWelcomeMessage();
     }
     
     public boolean isActionBarEnabled() {
-        return config.getBoolean("ui.action-bar.enabled", true);
+        return snapshot.isActionBarEnabled();
     }
     
     public String getActionBarMessage() {
@@ -195,24 +214,24 @@ public class ConfigManager {
     }
     
     public boolean isBossBarEnabled() {
-        return config.getBoolean("ui.boss-bar.enabled", false);
+        return snapshot.isBossBarEnabled();
     }
     
     public int getActionBarUpdateInterval() {
-        return config.getInt("ui.actionbar.update-interval", 20);
+        return snapshot.getActionBarUpdateInterval();
     }
     
     public boolean showCombatModeInActionBar() {
-        return config.getBoolean("ui.actionbar.show-combat-mode", true);
+        return snapshot.showCombatModeInActionBar();
     }
     
     public boolean showPvPStatusInActionBar() {
-        return config.getBoolean("ui.actionbar.show-pvp-status", true);
+        return snapshot.showPvPStatusInActionBar();
     }
     
     // Performance Settings
     public boolean isPerformanceMonitoringEnabled() {
-        return config.getBoolean("performance.monitoring.enabled", true);
+        return snapshot.isPerformanceMonitoringEnabled();
     }
     
     public int getPerformanceCheckInterval() {
@@ -231,6 +250,57 @@ public class ConfigManager {
         return config.getInt("performance.caching.max-size", 1000);
     }
     
+    public int getMaxPvPSessions() {
+        return snapshot.getMaxPvPSessions();
+    }
+    
+    public boolean isModeCachingEnabled() {
+        return config.getBoolean("performance.optimization.cache-modes", true);
+    }
+    
+    /**
+     * Gets how long offline players' state is cached, in minutes
+     */
+    public int getCacheDuration() {
+        return snapshot.getCacheDuration();
+    }
+    
+    public int getMaxCacheEntries() {
+        return snapshot.getMaxCacheEntries();
+    }
+    
+    /**
+     * Gets how often expired cache entries are swept, in minutes
+     */
+    public int getCleanupInterval() {
+        return snapshot.getCleanupInterval();
+    }
+    
+    public boolean isBatchProcessingEnabled() {
+        return config.getBoolean("performance.optimization.batch-processing", true);
+    }
+    
+    /**
+     * Gets the most joins completed per tick
+     */
+    public int getBatchSize() {
+        return snapshot.getBatchSize();
+    }
+    
+    /**
+     * Gets the time per tick after which no further queued join is started, in microseconds
+     */
+    public int getBatchBudgetMicros() {
+        return snapshot.getBatchBudgetMicros();
+    }
+    
+    /**
+     * Gets the time per tick after which no further HUD, analytics or maintenance work is started, in milliseconds
+     */
+    public double getTickBudgetMillis() {
+        return snapshot.getTickBudgetMillis();
+    }
+    
     // Advanced Settings
     public boolean isExperimentalFeaturesEnabled() {
         return config.getBoolean("advanced.experimental.enabled", false);
@@ -268,6 +338,22 @@ public class ConfigManager {
         return config.getString("advanced.database.password", "");
     }
     
+    public int getStatisticsFlushInterval() {
+        return snapshot.getStatisticsFlushInterval();
+    }
+    
+    public int getStatisticsBatchSize() {
+        return snapshot.getStatisticsBatchSize();
+    }
+    
+    public int getStatisticsMaxPending() {
+        return snapshot.getStatisticsMaxPending();
+    }
+    
+    public int getPreferencePreloadTimeout() {
+        return snapshot.getPreferencePreloadTimeout();
+    }
+    
     // Compatibility Settings
     public String getMinecraftVersion() {
         return config.getString("compatibility.minecraft-version", "auto");
@@ -337,11 +423,6 @@ public class ConfigManager {
             needsSave = true;
         }
         
-        if (getPvpTimeout() < 0) {
-            setValue("pvp.timeout", 10);
-            needsSave = true;
-        }
-        
         if (needsSave) {
             saveConfig();
             plugin.getLogger().info("Configuration validated and updated with missing defaults");
@@ -0,0 +1,493 @@
+package io.github.chiefboyardee.bedrockcombat.config;
+
+import org.bukkit.boss.BarColor;
+import org.bukkit.boss.BarStyle;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Immutable, typed view of the settings read on event hot paths.
+ * Compiled once per load/reload so handlers read final fields instead of
+ * walking the YAML tree by string path on every call.
+ */
+public final class ConfigSnapshot {
+    
+    // General
+    private final boolean pluginEnabled;
+    private final boolean debugMode;
+    
+    // Combat
+    private final double customAttackSpeed;
+    
+    // Detection
+    private final boolean playerDetectionEnabled;
+    private final boolean floodgateDetectionEnabled;
+    private final String floodgatePrefix;
+    private final boolean floodgatePrefixCaseSensitive;
+    private final boolean customRulesEnabled;
+    private final List<String> customRulePatterns;
+    private final boolean customRulesCaseSensitive;
+    
+    // PvP
+    private final boolean pvpDetectionEnabled;
+    private final int pvpTimeout;
+    private final boolean pvpNotificationsEnabled;
+    private final double bystanderRadius;
+    
+    // Worlds
+    private final WorldCombatPolicy defaultWorldPolicy;
+    private final Map<String, WorldCombatPolicy> worldPolicies;
+    
+    // UI
+    private final boolean welcomeMessageEnabled;
+    private final String welcomeMessage;
+    private final boolean actionBarEnabled;
+    private final int actionBarUpdateInterval;
+    private final boolean showCombatModeInActionBar;
+    private final boolean showPvPStatusInActionBar;
+    private final boolean bossBarEnabled;
+    private final BarColor bossBarPvPColor;
+    private final BarStyle bossBarStyle;
+    
+    // Performance
+    private final boolean performanceMonitoringEnabled;
+    private final int maxPvPSessions;
+    private final int cacheDuration;
+    private final int maxCacheEntries;
+    private final int cleanupInterval;
+    private final int preferencePreloadTimeout;
+    private final int statisticsFlushInterval;
+    private final int statisticsBatchSize;
+    private final int statisticsMaxPending;
+    private final int batchSize;
+    private final int batchBudgetMicros;
+    private final double tickBudgetMillis;
+    
+    private ConfigSnapshot(Reader reader) {
+        this.pluginEnabled = reader.bool(true, "general.enabled");
+        this.debugMode = reader.bool(false, "general.debug");
+        
+        this.customAttackSpeed = reader.number(16.0, "combat.attack-speeds.custom-mode");
+        
+        this.playerDetectionEnabled = reader.bool(true, "detection.enabled");
+        this.floodgateDetectionEnabled = reader.bool(true, "detection.floodgate.enabled");
+        this.floodgatePrefix = reader.string(".", "detection.floodgate.prefix");
+        this.floodgatePrefixCaseSensitive = reader.bool(false, "detection.floodgate.case-sensitive");
+        this.customRulesEnabled = reader.bool(false, "detection.custom-rules.enabled");
+        this.customRulePatterns = Collections.unmodifiableList(reader.patterns("detection.custom-rules.patterns"));
+        this.customRulesCaseSensitive = reader.bool(true, "detection.custom-rules.case-sensitive");
+        
+        this.pvpDetectionEnabled = reader.bool(true, "pvp.detection.enabled");
+        this.pvpTimeout = reader.integer(10, 0, "pvp.detection.timeout", "pvp.timeout");
+        this.pvpNotificationsEnabled = reader.bool(true, "pvp.balance.notify-players", "pvp.notifications.enabled");
+        this.bystanderRadius = reader.number(0.0, 0.0, 64.0, "pvp.detection.bystander-radius");
+        
+        if (reader.bool(true, "worlds.enabled")) {
+            this.defaultWorldPolicy = reader.worldPolicy("worlds.default", WorldCombatPolicy.DEFAULT);
+            this.worldPolicies = Collections.unmodifiableMap(reader.worldPolicies(defaultWorldPolicy));
+        } else {
+            this.defaultWorldPolicy = WorldCombatPolicy.DEFAULT;
+            this.worldPolicies = Collections.emptyMap();
+        }
+        
+        this.welcomeMessageEnabled = reader.bool(true, "ui.messages.welcome.enabled");
+        this.welcomeMessage = reader.string("&a&lBedrockCombat &7> &aController-friendly combat enabled for {player}!", "ui.messages.welcome.text");
+        this.actionBarEnabled = reader.bool(true, "ui.actionbar.enabled", "ui.action-bar.enabled");
+        this.actionBarUpdateInterval = reader.integer(20, 1, "ui.actionbar.update-interval");
+        this.showCombatModeInActionBar = reader.bool(true, "ui.actionbar.show-combat-mode");
+        this.showPvPStatusInActionBar = reader.bool(true, "ui.actionbar.show-pvp-status");
+        this.bossBarEnabled = reader.bool(false, "ui.bossbar.enabled", "ui.boss-bar.enabled");
+        this.bossBarPvPColor = reader.enumValue(BarColor.class, BarColor.RED, "ui.bossbar.pvp-color");
+        this.bossBarStyle = reader.enumValue(BarStyle.class, BarStyle.SOLID, "ui.bossbar.style");
+        
+        this.performanceMonitoringEnabled = reader.bool(true, "performance.monitoring.enabled");
+        this.maxPvPSessions = reader.integer(1000, 2, "performance.limits.max-pvp-sessions");
+        this.cacheDuration = reader.integer(30, 0, "performance.optimization.cache-duration");
+        this.maxCacheEntries = reader.integer(5000, 0, "performance.limits.max-cache-entries");
+        this.cleanupInterval = reader.integer(10, 1, "performance.limits.cleanup-interval");
+        this.preferencePreloadTimeout = reader.integer(250, 0, "advanced.database.preload-timeout");
+        this.statisticsFlushInterval = reader.integer(5, 1, "advanced.database.statistics.flush-interval");
+        this.statisticsBatchSize = reader.integer(500, 1, "advanced.database.statistics.batch-size");
+        this.statisticsMaxPending = reader.integer(10000, 1, "advanced.database.statistics.max-pending");
+        this.batchSize = reader.integer(50, 1, "performance.optimization.batch-size");
+        this.batchBudgetMicros = reader.integer(2000, 0, "performance.optimization.batch-budget-us");
+        this.tickBudgetMillis = reader.number(2.0, 0.1, 50.0, "performance.optimization.tick-budget-ms");
+    }
+    
+    /**
+     * Compiles a snapshot from the given configuration
+     * @throws InvalidConfigurationException listing every value of the wrong type or out of range
+     */
+    public static ConfigSnapshot compile(ConfigurationSection config) throws InvalidConfigurationException {
+        Reader reader = new Reader(config);
+        ConfigSnapshot snapshot = new ConfigSnapshot(reader);
+        if (!reader.errors.isEmpty()) {
+            throw new InvalidConfigurationException("Invalid configuration: " + String.join("; ", reader.errors));
+        }
+        return snapshot;
+    }
+    
+    public boolean isPluginEnabled() {
+        return pluginEnabled;
+    }
+    
+    public boolean isDebugMode() {
+        return debugMode;
+    }
+    
+    public double getCustomAttackSpeed() {
+        return customAttackSpeed;
+    }
+    
+    /**
+     * Resolves the policy of a world by name; call on world load, not per event
+     */
+    public WorldCombatPolicy getWorldPolicy(String worldName) {
+        return worldPolicies.getOrDefault(worldName, defaultWorldPolicy);
+    }
+    
+    /**
+     * Gets the names of all worlds with their own configuration
+     */
+    public Set<String> getConfiguredWorlds() {
+        return worldPolicies.keySet();
+    }
+    
+    public boolean isPlayerDetectionEnabled() {
+        return playerDetectionEnabled;
+    }
+    
+    public boolean isFloodgateDetectionEnabled() {
+        return floodgateDetectionEnabled;
+    }
+    
+    public String getFloodgatePrefix() {
+        return floodgatePrefix;
+    }
+    
+    public boolean isFloodgatePrefixCaseSensitive() {
+        return floodgatePrefixCaseSensitive;
+    }
+    
+    public boolean isCustomRulesEnabled() {
+        return customRulesEnabled;
+    }
+    
+    /**
+     * Gets the custom username patterns, each a valid regex
+     */
+    public List<String> getCustomRulePatterns() {
+        return customRulePatterns;
+    }
+    
+    public boolean isCustomRulesCaseSensitive() {
+        return customRulesCaseSensitive;
+    }
+    
+    public boolean isPvpDetectionEnabled() {
+        return pvpDetectionEnabled;
+    }
+    
+    public int getPvpTimeout() {
+        return pvpTimeout;
+    }
+    
+    public long getPvpTimeoutTicks() {
+        return pvpTimeout * 20L;
+    }
+    
+    public long getPvpTimeoutMillis() {
+        return pvpTimeout * 1000L;
+    }
+    
+    public boolean isPvpNotificationsEnabled() {
+        return pvpNotificationsEnabled;
+    }
+    
+    /**
+     * Gets the distance from a fight within which Bedrock players also enter PvP mode, 0 if off
+     */
+    public double getBystanderRadius() {
+        return bystanderRadius;
+    }
+    
+    public boolean isWelcomeMessageEnabled() {
+        return welcomeMessageEnabled;
+    }
+    
+    public String getWelcomeMessage() {
+        return welcomeMessage;
+    }
+    
+    public boolean isActionBarEnabled() {
+        return actionBarEnabled;
+    }
+    
+    public int getActionBarUpdateInterval() {
+        return actionBarUpdateInterval;
+    }
+    
+    public boolean showCombatModeInActionBar() {
+        return showCombatModeInActionBar;
+    }
+    
+    public boolean showPvPStatusInActionBar() {
+        return showPvPStatusInActionBar;
+    }
+    
+    public boolean isBossBarEnabled() {
+        return bossBarEnabled;
+    }
+    
+    public BarColor getBossBarPvPColor() {
+        return bossBarPvPColor;
+    }
+    
+    public BarStyle getBossBarStyle() {
+        return bossBarStyle;
+    }
+    
+    public boolean isPerformanceMonitoringEnabled() {
+        return performanceMonitoringEnabled;
+    }
+    
+    public int getMaxPvPSessions() {
+        return maxPvPSessions;
+    }
+    
+    /**
+     * Gets how long offline players' state is cached, in minutes
+     */
+    public int getCacheDuration() {
+        return cacheDuration;
+    }
+    
+    public int getMaxCacheEntries() {
+        return maxCacheEntries;
+    }
+    
+    /**
+     * Gets how often expired cache entries are swept, in minutes
+     */
+    public int getCleanupInterval() {
+        return cleanupInterval;
+    }
+    
+    /**
+     * Gets the milliseconds a login waits for the player's stored preference
+     */
+    public int getPreferencePreloadTimeout() {
+        return preferencePreloadTimeout;
+    }
+    
+    /**
+     * Gets the seconds between batched statistics writes
+     */
+    public int getStatisticsFlushInterval() {
+        return statisticsFlushInterval;
+    }
+    
+    public int getStatisticsBatchSize() {
+        return statisticsBatchSize;
+    }
+    
+    public int getStatisticsMaxPending() {
+        return statisticsMaxPending;
+    }
+    
+    /**
+     * Gets the most joins completed per tick
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    /**
+     * Gets the time per tick after which no further queued join is started, in microseconds
+     */
+    public int getBatchBudgetMicros() {
+        return batchBudgetMicros;
+    }
+    
+    /**
+     * Gets the time per tick after which no further HUD, analytics or maintenance work is started, in milliseconds
+     */
+    public double getTickBudgetMillis() {
+        return tickBudgetMillis;
+    }
+    
+    /**
+     * Typed reads that collect errors instead of silently defaulting.
+     * Each setting may have several paths: the documented one first, then legacy ones.
+     */
+    private static final class Reader {
+        private final ConfigurationSection config;
+        private final List<String> errors = new ArrayList<>();
+        
+        Reader(ConfigurationSection config) {
+            this.config = config;
+        }
+        
+        boolean bool(boolean defaultValue, String... paths) {
+            String path = find(paths);
+            if (path == null) {
+                return defaultValue;
+            }
+            if (!config.isBoolean(path)) {
+                errors.add(path + " must be true or false (was '" + config.get(path) + "')");
+                return defaultValue;
+            }
+            return config.getBoolean(path);
+        }
+        
+        int integer(int defaultValue, int min, String... paths) {
+            String path = find(paths);
+            if (path == null) {
+                return defaultValue;
+            }
+            if (!config.isInt(path)) {
+                errors.add(path + " must be a whole number (was '" + config.get(path) + "')");
+                return defaultValue;
+            }
+            int value = config.getInt(path);
+            if (value < min) {
+                errors.add(path + " must be at least " + min + " (was " + value + ")");
+                return defaultValue;
+            }
+            return value;
+        }
+        
+        double number(double defaultValue, String... paths) {
+            String path = find(paths);
+            if (path == null) {
+                return defaultValue;
+            }
+            if (!config.isDouble(path) && !config.isInt(path)) {
+                errors.add(path + " must be a number (was '" + config.get(path) + "')");
+                return defaultValue;
+            }
+            double value = config.getDouble(path);
+            if (value <= 0) {
+                errors.add(path + " must be greater than 0 (was " + value + ")");
+                return defaultValue;
+            }
+            return value;
+        }
+        
+        double number(double defaultValue, double min, double max, String... paths) {
+            String path = find(paths);
+            if (path == null) {
+                return defaultValue;
+            }
+            if (!config.isDouble(path) && !config.isInt(path)) {
+                errors.add(path + " must be a number (was '" + config.get(path) + "')");
+                return defaultValue;
+            }
+            double value = config.getDouble(path);
+            if (!(value >= min && value <= max)) {
+                errors.add(path + " must be between " + min + " and " + max + " (was " + value + ")");
+                return defaultValue;
+            }
+            return value;
+        }
+        
+        WorldCombatPolicy worldPolicy(String path, WorldCombatPolicy fallback) {
+            boolean combatEnabled = bool(fallback.isCombatEnabled(), path + ".combat-enabled");
+            boolean pvpDetection = bool(fallback.isPvpDetectionEnabled(), path + ".pvp-detection", path + ".pvp-enabled");
+            
+            WorldCombatPolicy.ForceMode forceMode = fallback.getForceMode();
+            String forceModeName = string(forceMode.getConfigName(), path + ".force-mode");
+            WorldCombatPolicy.ForceMode parsed = WorldCombatPolicy.ForceMode.fromConfig(forceModeName);
+            if (parsed == null) {
+                errors.add(path + ".force-mode must be one of default, java, bedrock, custom (was '" + forceModeName + "')");
+            } else {
+                forceMode = parsed;
+            }
+            return new WorldCombatPolicy(combatEnabled, pvpDetection, forceMode);
+        }
+        
+        Map<String, WorldCombatPolicy> worldPolicies(WorldCombatPolicy defaults) {
+            Map<String, WorldCombatPolicy> policies = new HashMap<>();
+            
+            // Legacy layout: worlds.<name>.pvp-enabled
+            ConfigurationSection worlds = config.getConfigurationSection("worlds");
+            if (worlds != null) {
+                for (String name : worlds.getKeys(false)) {
+                    if (!name.equals("default") && !name.equals("world-specific") && worlds.isConfigurationSection(name)) {
+                        policies.put(name, worldPolicy("worlds." + name, defaults));
+                    }
+                }
+            }
+            
+            ConfigurationSection specific = config.getConfigurationSection("worlds.world-specific");
+            if (specific != null) {
+                for (String name : specific.getKeys(false)) {
+                    policies.put(name, worldPolicy("worlds.world-specific." + name, defaults));
+                }
+            }
+            return policies;
+        }
+        
+        <E extends Enum<E>> E enumValue(Class<E> type, E defaultValue, String path) {
+            String name = string(defaultValue.name(), path);
+            for (E constant : type.getEnumConstants()) {
+                if (constant.name().equalsIgnoreCase(name)) {
+                    return constant;
+                }
+            }
+            errors.add(path + " must be one of " + Arrays.toString(type.getEnumConstants()) + " (was '" + name + "')");
+            return defaultValue;
+        }
+        
+        String string(String defaultValue, String... paths) {
+            String path = find(paths);
+            if (path == null) {
+                return defaultValue;
+            }
+            if (!config.isString(path)) {
+                errors.add(path + " must be text (was '" + config.get(path) + "')");
+                return defaultValue;
+            }
+            return config.getString(path);
+        }
+        
+        List<String> patterns(String path) {
+            List<String> patterns = new ArrayList<>();
+            if (!config.contains(path)) {
+                return patterns;
+            }
+            if (!config.isList(path)) {
+                errors.add(path + " must be a list of patterns (was '" + config.get(path) + "')");
+                return patterns;
+            }
+            for (String pattern : config.getStringList(path)) {
+                try {
+                    Pattern.compile(pattern);
+                    patterns.add(pattern);
+                } catch (PatternSyntaxException e) {
+                    errors.add(path + " contains an invalid pattern '" + pattern + "': " + e.getDescription());
+                }
+            }
+            return patterns;
+        }
+        
+        private String find(String... paths) {
+            for (String path : paths) {
+                if (config.contains(path)) {
+                    return path;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.chiefboyardee.bedrockcombat.config;
+
+import java.util.Locale;
+
+/**
+ * Resolved combat settings of one world (worlds.default merged with worlds.world-specific)
+ */
+public final class WorldCombatPolicy {
+    
+    /** Policy used when per-world configuration is disabled */
+    public static final WorldCombatPolicy DEFAULT = new WorldCombatPolicy(true, true, ForceMode.DEFAULT);
+    
+    private final boolean combatEnabled;
+    private final boolean pvpDetectionEnabled;
+    private final ForceMode forceMode;
+    
+    public WorldCombatPolicy(boolean combatEnabled, boolean pvpDetectionEnabled, ForceMode forceMode) {
+        this.combatEnabled = combatEnabled;
+        this.pvpDetectionEnabled = pvpDetectionEnabled;
+        this.forceMode = forceMode;
+    }
+    
+    /**
+     * Whether combat optimization applies in this world at all
+     */
+    public boolean isCombatEnabled() {
+        return combatEnabled;
+    }
+    
+    /**
+     * Whether player-vs-player hits tag players in this world
+     */
+    public boolean isPvpDetectionEnabled() {
+        return pvpDetectionEnabled;
+    }
+    
+    /**
+     * Combat mode forced on every player in this world
+     */
+    public ForceMode getForceMode() {
+        return forceMode;
+    }
+    
+    @Override
+    public String toString() {
+        return "combat=" + combatEnabled + ", pvp-detection=" + pvpDetectionEnabled + ", force-mode=" + forceMode.getConfigName();
+    }
+    
+    /**
+     * Values of the force-mode setting
+     */
+    public enum ForceMode {
+        DEFAULT,
+        JAVA,
+        BEDROCK,
+        CUSTOM;
+        
+        /**
+         * Parses a config value, returning null if it is not a known mode
+         */
+        public static ForceMode fromConfig(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        
+        public String getConfigName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+}
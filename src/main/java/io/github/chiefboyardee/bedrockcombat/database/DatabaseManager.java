@@ -3,7 +3,23 @@ package io.github.chiefboyardee.bedrockcombat.database;
 import io.github.chiefboyardee.bedrockcombat.config.ConfigManager;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
 
 /**
  * Simplified database manager for BedrockCombatCompat
@@ -11,9 +27,22 @@ import java.util.UUID;
  */
 public class DatabaseManager {
     
+    private static final long CLOSE_TIMEOUT_MILLIS = 10000L;
+    
+    /** Preloads not picked up by a join within this time are dropped */
+    private static final long PRELOAD_TTL_MILLIS = 60000L;
+    
     private final JavaPlugin plugin;
     private final ConfigManager configManager;
-    private boolean enabled;
+    private volatile boolean enabled;
+    private Connection connection;
+    private StatisticsWriter statisticsWriter;
+    
+    // Preference reads run on their own connection and thread, off the main thread
+    private Connection readConnection;
+    private ExecutorService preferenceLoader;
+    private long preloadTimeoutMillis;
+    private final Map<UUID, Preload> preloads = new ConcurrentHashMap<>();
     
     public DatabaseManager(JavaPlugin plugin, ConfigManager configManager) {
         this.plugin = plugin;
@@ -26,37 +55,153 @@ public class DatabaseManager {
     public void initialize() {
         this.enabled = configManager.isDatabaseEnabled();
         
-        if (enabled) {
-            plugin.getLogger().info("Database functionality is enabled but not yet implemented");
-            // TODO: Implement actual database connection
-        } else {
+        if (!enabled) {
             plugin.getLogger().info("Database functionality is disabled");
+            return;
+        }
+        
+        if (!"sqlite".equalsIgnoreCase(configManager.getDatabaseType())) {
+            plugin.getLogger().warning("Database type '" + configManager.getDatabaseType()
+                + "' is not supported yet, using SQLite");
+        }
+        
+        try {
+            // The driver ships with Spigot and Paper
+            Class.forName("org.sqlite.JDBC");
+            plugin.getDataFolder().mkdirs();
+            File file = new File(plugin.getDataFolder(), "bedrockcombat.db");
+            connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                // Lets preference reads run while statistics are being written
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.executeUpdate("CREATE TABLE IF NOT EXISTS player_preferences ("
+                    + "player_uuid TEXT PRIMARY KEY, "
+                    + "prefers_bedrock INTEGER NOT NULL)");
+            }
+            StatisticsWriter.createSchema(connection);
+            readConnection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        } catch (ClassNotFoundException | SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to open the SQLite database, database functionality disabled", e);
+            closeConnection();
+            enabled = false;
+            return;
         }
+        
+        statisticsWriter = new StatisticsWriter(connection, plugin.getLogger(),
+            configManager.getStatisticsFlushInterval() * 1000L,
+            configManager.getStatisticsBatchSize(),
+            configManager.getStatisticsMaxPending());
+        statisticsWriter.start();
+        
+        preloadTimeoutMillis = Math.max(0, configManager.getPreferencePreloadTimeout());
+        preferenceLoader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BedrockCombat-PreferenceLoader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        plugin.getLogger().info("SQLite database opened, combat statistics are written in batches");
     }
     
     /**
-     * Loads player data from database
+     * Starts loading a player's stored preference into the handoff cache.
+     * Called from AsyncPlayerPreLoginEvent; waits at most the preload timeout so
+     * fast loads are ready before the join, slow ones finish in the background.
      */
-    public void loadPlayerData(UUID playerId) {
+    public void preloadPlayerData(UUID playerId) {
         if (!enabled) return;
-        // TODO: Implement player data loading
+        
+        long now = System.currentTimeMillis();
+        preloads.values().removeIf(preload -> now - preload.createdAt > PRELOAD_TTL_MILLIS);
+        
+        CompletableFuture<Boolean> preference = loadPreferenceAsync(playerId);
+        if (preference == null) {
+            return;
+        }
+        preloads.put(playerId, new Preload(preference, now));
+        
+        try {
+            preference.get(preloadTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            plugin.getLogger().fine("Preference of " + playerId + " still loading at login, applying it when it arrives");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // loadPreference handles its own errors
+        }
+    }
+    
+    /**
+     * Takes a player's preloaded preference out of the handoff cache; in-memory only.
+     * The future yields true (Bedrock), false (Java) or null when nothing is stored,
+     * and may still be pending if the load was slow.
+     * @return the pending or completed preference, or null if none was preloaded
+     */
+    public CompletableFuture<Boolean> takePreloadedPreference(UUID playerId) {
+        Preload preload = preloads.remove(playerId);
+        return preload != null ? preload.preference : null;
+    }
+    
+    /**
+     * Starts reading a player's stored preference on the loader thread, for joins
+     * that had nothing preloaded. The future yields as takePreloadedPreference's does.
+     * @return the pending preference, or null if the database is disabled or shut down
+     */
+    public CompletableFuture<Boolean> loadPreferenceAsync(UUID playerId) {
+        if (!enabled) return null;
+        
+        try {
+            return CompletableFuture.supplyAsync(() -> loadPreference(playerId), preferenceLoader);
+        } catch (RuntimeException e) {
+            // Loader already shut down
+            return null;
+        }
     }
     
     /**
-     * Saves combat statistics
+     * Reads a stored preference, on the loader thread; failures count as no preference
+     */
+    private Boolean loadPreference(UUID playerId) {
+        try (PreparedStatement statement = readConnection.prepareStatement(
+                "SELECT prefers_bedrock FROM player_preferences WHERE player_uuid = ?")) {
+            statement.setString(1, playerId.toString());
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? result.getBoolean(1) : null;
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to load the combat preference of " + playerId, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Saves combat statistics.
+     * Only merges into an in-memory counter; the background writer persists it.
      */
     public void saveCombatStatistic(UUID playerId, String statType, int value) {
         if (!enabled) return;
-        // TODO: Implement combat statistics saving
+        statisticsWriter.increment(playerId, statType, value);
     }
     
     /**
-     * Closes database connection
+     * Writes all buffered statistics and closes the database connection
      */
     public void close() {
-        if (enabled) {
-            plugin.getLogger().info("Database connection closed");
+        if (!enabled) {
+            return;
+        }
+        enabled = false;
+        if (preferenceLoader != null) {
+            preferenceLoader.shutdownNow();
+            preferenceLoader = null;
         }
+        preloads.clear();
+        if (statisticsWriter != null) {
+            statisticsWriter.close(CLOSE_TIMEOUT_MILLIS);
+            plugin.getLogger().info("Combat statistics flushed: " + statisticsWriter.getFlushedRows()
+                + " rows in " + statisticsWriter.getFlushedBatches() + " batches");
+        }
+        closeConnection();
+        plugin.getLogger().info("Database connection closed");
     }
     
     /**
@@ -65,4 +210,42 @@ public class DatabaseManager {
     public boolean isEnabled() {
         return enabled;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Gets the statistics writer, or null if the database is disabled
+     */
+    public StatisticsWriter getStatisticsWriter() {
+        return statisticsWriter;
+    }
+    
+    private void closeConnection() {
+        close(connection);
+        close(readConnection);
+        connection = null;
+        readConnection = null;
+    }
+    
+    private void close(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to close the database connection", e);
+        }
+    }
+    
+    /**
+     * Preference load handed from pre-login to join
+     */
+    private static final class Preload {
+        final CompletableFuture<Boolean> preference;
+        final long createdAt;
+        
+        Preload(CompletableFuture<Boolean> preference, long createdAt) {
+            this.preference = preference;
+            this.createdAt = createdAt;
+        }
+    }
+}
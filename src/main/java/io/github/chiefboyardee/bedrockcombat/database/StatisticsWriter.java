@@ -0,0 +1,291 @@
+package io.github.chiefboyardee.bedrockcombat.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind pipeline for combat statistics.
+ * Increments are merged in memory per (player, stat type) and a background thread
+ * writes them as one batched upsert transaction, either every flush interval or
+ * as soon as the batch size is reached. The buffer holds at most maxPending
+ * distinct entries; once full, increments for new entries are dropped and counted
+ * instead of stalling the main thread.
+ */
+public class StatisticsWriter {
+    
+    private static final String UPSERT =
+        "INSERT INTO combat_statistics (player_uuid, stat_type, value) VALUES (?, ?, ?) "
+        + "ON CONFLICT(player_uuid, stat_type) DO UPDATE SET value = value + excluded.value";
+    
+    private final Connection connection;
+    private final Logger logger;
+    private final long flushIntervalMillis;
+    private final int batchSize;
+    private final int maxPending;
+    
+    private final Object lock = new Object();
+    private Map<UUID, PlayerStatistics> pending = new HashMap<>();
+    private int pendingEntries;
+    private boolean flushRequested;
+    private boolean running;
+    private Thread thread;
+    
+    // Written by the writer thread, read by status commands
+    private volatile long flushedBatches;
+    private volatile long flushedRows;
+    private volatile long failedBatches;
+    private long droppedIncrements;
+    
+    public StatisticsWriter(Connection connection, Logger logger, long flushIntervalMillis, int batchSize, int maxPending) {
+        this.connection = connection;
+        this.logger = logger;
+        this.flushIntervalMillis = Math.max(100L, flushIntervalMillis);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxPending = Math.max(this.batchSize, maxPending);
+    }
+    
+    /**
+     * Creates the statistics table if needed
+     */
+    public static void createSchema(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS combat_statistics ("
+                + "player_uuid TEXT NOT NULL, "
+                + "stat_type TEXT NOT NULL, "
+                + "value INTEGER NOT NULL DEFAULT 0, "
+                + "PRIMARY KEY (player_uuid, stat_type))");
+        }
+    }
+    
+    /**
+     * Starts the background writer thread
+     */
+    public void start() {
+        synchronized (lock) {
+            if (running) {
+                return;
+            }
+            running = true;
+        }
+        thread = new Thread(this::run, "BedrockCombat-StatisticsWriter");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Adds to a statistic; never blocks on I/O
+     * @return false if the increment was dropped because the buffer is full
+     */
+    public boolean increment(UUID playerId, String statType, long value) {
+        synchronized (lock) {
+            if (!running) {
+                return false;
+            }
+            PlayerStatistics statistics = pending.get(playerId);
+            if (statistics == null) {
+                if (pendingEntries >= maxPending) {
+                    droppedIncrements++;
+                    return false;
+                }
+                statistics = new PlayerStatistics();
+                pending.put(playerId, statistics);
+            }
+            int entries = statistics.size;
+            if (!statistics.add(statType, value, pendingEntries < maxPending)) {
+                droppedIncrements++;
+                return false;
+            }
+            pendingEntries += statistics.size - entries;
+            if (pendingEntries >= batchSize && !flushRequested) {
+                flushRequested = true;
+                lock.notifyAll();
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * Stops accepting increments, drains everything buffered and waits for the writer
+     */
+    public void close(long timeoutMillis) {
+        synchronized (lock) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            lock.notifyAll();
+        }
+        try {
+            thread.join(timeoutMillis);
+            if (thread.isAlive()) {
+                logger.warning("Statistics writer did not finish within " + timeoutMillis + "ms, some statistics may be lost");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Gets the number of (player, stat type) entries waiting to be written
+     */
+    public int getPendingEntries() {
+        synchronized (lock) {
+            return pendingEntries;
+        }
+    }
+    
+    /**
+     * Gets the number of increments dropped because the buffer was full
+     */
+    public long getDroppedIncrements() {
+        synchronized (lock) {
+            return droppedIncrements;
+        }
+    }
+    
+    public long getFlushedBatches() {
+        return flushedBatches;
+    }
+    
+    public long getFlushedRows() {
+        return flushedRows;
+    }
+    
+    public long getFailedBatches() {
+        return failedBatches;
+    }
+    
+    private void run() {
+        long nextFlush = System.currentTimeMillis() + flushIntervalMillis;
+        while (true) {
+            Map<UUID, PlayerStatistics> batch;
+            boolean stopping;
+            synchronized (lock) {
+                long wait = nextFlush - System.currentTimeMillis();
+                while (running && !flushRequested && wait > 0) {
+                    try {
+                        lock.wait(wait);
+                    } catch (InterruptedException e) {
+                        running = false;
+                        break;
+                    }
+                    wait = nextFlush - System.currentTimeMillis();
+                }
+                batch = pending;
+                pending = new HashMap<>();
+                pendingEntries = 0;
+                flushRequested = false;
+                stopping = !running;
+            }
+            
+            if (!batch.isEmpty() && !write(batch) && !stopping) {
+                requeue(batch);
+            }
+            if (stopping) {
+                return;
+            }
+            nextFlush = System.currentTimeMillis() + flushIntervalMillis;
+        }
+    }
+    
+    /**
+     * Writes a batch as a single transaction
+     */
+    private boolean write(Map<UUID, PlayerStatistics> batch) {
+        int rows = 0;
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+                for (Map.Entry<UUID, PlayerStatistics> entry : batch.entrySet()) {
+                    String playerId = entry.getKey().toString();
+                    PlayerStatistics statistics = entry.getValue();
+                    for (int i = 0; i < statistics.size; i++) {
+                        statement.setString(1, playerId);
+                        statement.setString(2, statistics.types[i]);
+                        statement.setLong(3, statistics.values[i]);
+                        statement.addBatch();
+                        rows++;
+                    }
+                }
+                statement.executeBatch();
+            }
+            connection.commit();
+            flushedBatches++;
+            flushedRows += rows;
+            return true;
+        } catch (SQLException e) {
+            failedBatches++;
+            logger.log(Level.WARNING, "Failed to write " + rows + " combat statistics", e);
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                logger.log(Level.FINE, "Rollback failed", rollbackError);
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * Merges a failed batch back so it is retried with the next flush, within the buffer limit
+     */
+    private void requeue(Map<UUID, PlayerStatistics> batch) {
+        synchronized (lock) {
+            for (Map.Entry<UUID, PlayerStatistics> entry : batch.entrySet()) {
+                PlayerStatistics failed = entry.getValue();
+                PlayerStatistics statistics = pending.get(entry.getKey());
+                if (statistics == null) {
+                    statistics = new PlayerStatistics();
+                    pending.put(entry.getKey(), statistics);
+                }
+                for (int i = 0; i < failed.size; i++) {
+                    int entries = statistics.size;
+                    if (statistics.add(failed.types[i], failed.values[i], pendingEntries < maxPending)) {
+                        pendingEntries += statistics.size - entries;
+                    } else {
+                        droppedIncrements++;
+                    }
+                }
+                if (statistics.size == 0) {
+                    pending.remove(entry.getKey());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Pending counters of one player; stat types are few, so a linear scan beats hashing
+     */
+    private static final class PlayerStatistics {
+        String[] types = new String[2];
+        long[] values = new long[2];
+        int size;
+        
+        boolean add(String type, long value, boolean allowNew) {
+            for (int i = 0; i < size; i++) {
+                if (types[i].equals(type)) {
+                    values[i] += value;
+                    return true;
+                }
+            }
+            if (!allowNew) {
+                return false;
+            }
+            if (size == types.length) {
+                types = Arrays.copyOf(types, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            types[size] = type;
+            values[size] = value;
+            size++;
+            return true;
+        }
+    }
+}
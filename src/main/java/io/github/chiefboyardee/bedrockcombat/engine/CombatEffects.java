@@ -0,0 +1,26 @@
+package io.github.chiefboyardee.bedrockcombat.engine;
+
+import io.github.chiefboyardee.bedrockcombat.combat.CombatMode;
+
+/**
+ * Side effects requested by the {@link CombatEngine}.
+ * The engine never touches the server itself; an adapter for the running
+ * platform carries these out, and benchmarks can simply count or ignore them.
+ */
+public interface CombatEffects {
+    
+    /**
+     * Applies a combat mode (attack speed) to a player
+     */
+    void setCombatMode(PlayerCombatState state, CombatMode mode);
+    
+    /**
+     * Sends a chat message to a player; the text uses '&' color codes
+     */
+    void sendMessage(PlayerCombatState state, String message);
+    
+    /**
+     * Refreshes a player's HUD (action bar) after their combat state changed
+     */
+    void updateHud(PlayerCombatState state);
+}
@@ -0,0 +1,364 @@
+package io.github.chiefboyardee.bedrockcombat.engine;
+
+import io.github.chiefboyardee.bedrockcombat.combat.CombatMode;
+import io.github.chiefboyardee.bedrockcombat.config.WorldCombatPolicy;
+import io.github.chiefboyardee.bedrockcombat.pvp.PvPTimeoutWheel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Combat mode state machine, free of any server API.
+ * Works on per-player {@link PlayerCombatState}s and logical ticks: callers report
+ * platform, PvP activity and ticks, and every resulting change is emitted through
+ * {@link CombatEffects}. Mode requests made during a tick are collected and emitted
+ * once by {@link #flushModes()}, skipping those that would not change the applied mode.
+ * Not thread-safe, use from the main server thread only.
+ */
+public class CombatEngine {
+    
+    static final String PVP_ENTER_MESSAGE = "&c&lPvP Mode &7&l> &cTemporary Java combat for fair PvP";
+    static final String PVP_EXIT_MESSAGE = "&a&lPvE Mode &7&l> &aController-friendly combat restored";
+    
+    private final CombatEffects effects;
+    
+    /** State of every online player */
+    private final Map<UUID, PlayerCombatState> players = new HashMap<>();
+    private final Collection<PlayerCombatState> playersView = Collections.unmodifiableCollection(players.values());
+    
+    /** PvP timeouts for all tagged players, advanced once per tick */
+    private final PvPTimeoutWheel<PlayerCombatState> pvpTimeouts;
+    
+    /** Players with a mode request waiting for the end of the tick */
+    private final List<PlayerCombatState> queuedModes = new ArrayList<>();
+    
+    /** Players in PvP mode, kept dense with swap-remove so per-tick HUD work skips everyone else */
+    private final List<PlayerCombatState> pvpPlayers = new ArrayList<>();
+    private final List<PlayerCombatState> pvpPlayersView = Collections.unmodifiableList(pvpPlayers);
+    
+    private int bedrockCount;
+    private int bedrockPvPCount;
+    private long appliedModeWrites;
+    private long skippedModeWrites;
+    
+    /**
+     * @param effects receives every side effect of a state change
+     * @param timeoutSlots slots of the PvP timeout wheel, ideally above the usual timeout in ticks
+     */
+    public CombatEngine(CombatEffects effects, int timeoutSlots) {
+        this.effects = effects;
+        this.pvpTimeouts = new PvPTimeoutWheel<>(timeoutSlots);
+    }
+    
+    /**
+     * Creates the state of a joining player, replacing any left over from an earlier session
+     * @param handle the server's player object, passed back through {@link PlayerCombatState#getHandle()}
+     */
+    public PlayerCombatState addPlayer(UUID playerId, Object handle) {
+        removePlayer(playerId);
+        PlayerCombatState state = new PlayerCombatState(playerId, handle);
+        players.put(playerId, state);
+        return state;
+    }
+    
+    /**
+     * Gets the state of an online player, or null if the player is not tracked (e.g., NPCs)
+     */
+    public PlayerCombatState getState(UUID playerId) {
+        return players.get(playerId);
+    }
+    
+    /**
+     * Gets the states of all online players (read-only view)
+     */
+    public Collection<PlayerCombatState> getStates() {
+        return playersView;
+    }
+    
+    /**
+     * Forgets a player who left
+     * @return the removed state, or null if the player was not tracked
+     */
+    public PlayerCombatState removePlayer(UUID playerId) {
+        PlayerCombatState state = players.remove(playerId);
+        if (state == null) {
+            return null;
+        }
+        pvpTimeouts.cancel(state);
+        if (state.bedrock) {
+            bedrockCount--;
+        }
+        if (state.inPvP) {
+            unlinkPvP(state);
+            if (state.bedrock) {
+                bedrockPvPCount--;
+            }
+        }
+        state.removed = true;
+        return state;
+    }
+    
+    /**
+     * Records whether a player prefers Bedrock combat; does not apply it
+     * @return true if the preference changed
+     */
+    public boolean setBedrockPlayer(PlayerCombatState state, boolean bedrock) {
+        if (state.bedrock == bedrock) {
+            return false;
+        }
+        state.bedrock = bedrock;
+        bedrockCount += bedrock ? 1 : -1;
+        if (state.inPvP) {
+            bedrockPvPCount += bedrock ? 1 : -1;
+        }
+        return true;
+    }
+    
+    /**
+     * Applies the appropriate combat mode based on world policy, preference and PvP state
+     */
+    public void applyCombatMode(PlayerCombatState state) {
+        requestMode(state, resolveMode(state));
+    }
+    
+    /**
+     * Gets the combat mode a player should currently have
+     */
+    public CombatMode resolveMode(PlayerCombatState state) {
+        WorldCombatPolicy policy = state.getPolicy();
+        
+        if (!policy.isCombatEnabled()) {
+            // Combat optimization is off in this world - vanilla Java combat
+            return CombatMode.JAVA;
+        }
+        
+        switch (policy.getForceMode()) {
+            case JAVA:
+                return CombatMode.JAVA;
+            case BEDROCK:
+                return CombatMode.BEDROCK;
+            case CUSTOM:
+                return CombatMode.CUSTOM;
+            default:
+                break;
+        }
+        
+        if (state.inPvP) {
+            // Player is in PvP - force Java combat for fairness
+            return CombatMode.JAVA;
+        }
+        return state.bedrock ? CombatMode.BEDROCK : CombatMode.JAVA;
+    }
+    
+    /**
+     * Requests a combat mode for the end of the tick; the last request of the tick wins
+     */
+    public void requestMode(PlayerCombatState state, CombatMode mode) {
+        if (state.modeQueued) {
+            // Superseded within the same tick
+            skippedModeWrites++;
+            state.requestedMode = mode;
+            return;
+        }
+        if (state.appliedMode == mode) {
+            skippedModeWrites++;
+            return;
+        }
+        state.requestedMode = mode;
+        state.modeQueued = true;
+        queuedModes.add(state);
+    }
+    
+    /**
+     * Emits every mode requested this tick that actually changes the applied mode
+     */
+    public void flushModes() {
+        if (queuedModes.isEmpty()) {
+            return;
+        }
+        for (PlayerCombatState state : queuedModes) {
+            state.modeQueued = false;
+            if (state.removed) {
+                continue;
+            }
+            if (state.appliedMode == state.requestedMode) {
+                skippedModeWrites++;
+                continue;
+            }
+            state.appliedMode = state.requestedMode;
+            appliedModeWrites++;
+            effects.setCombatMode(state, state.requestedMode);
+        }
+        queuedModes.clear();
+    }
+    
+    /**
+     * Forgets all applied modes so the next request for each player is emitted again
+     * (used after a reload, when the attack speed behind a mode may have changed)
+     */
+    public void invalidateModes() {
+        for (PlayerCombatState state : players.values()) {
+            state.appliedMode = null;
+        }
+    }
+    
+    /**
+     * Puts a player into PvP mode (temporary Java combat) and (re)starts their timeout
+     */
+    public void enterPvPMode(PlayerCombatState state, long timeoutTicks) {
+        if (!state.inPvP) {
+            state.inPvP = true;
+            state.pvpSlot = pvpPlayers.size();
+            pvpPlayers.add(state);
+            // World policy still takes precedence over PvP, so only resolveMode decides
+            applyCombatMode(state);
+            
+            if (state.bedrock) {
+                bedrockPvPCount++;
+                effects.sendMessage(state, PVP_ENTER_MESSAGE);
+            }
+            effects.updateHud(state);
+        }
+        
+        // Always restart the timeout when PvP activity occurs
+        pvpTimeouts.schedule(state, timeoutTicks);
+    }
+    
+    /**
+     * Removes a player from PvP mode and reverts to their preferred combat
+     * @return true if the player was in PvP mode
+     */
+    public boolean exitPvPMode(PlayerCombatState state) {
+        if (!state.inPvP) {
+            return false;
+        }
+        state.inPvP = false;
+        unlinkPvP(state);
+        pvpTimeouts.cancel(state);
+        applyCombatMode(state);
+        
+        if (state.bedrock) {
+            bedrockPvPCount--;
+            effects.sendMessage(state, PVP_EXIT_MESSAGE);
+        }
+        effects.updateHud(state);
+        return true;
+    }
+    
+    private void unlinkPvP(PlayerCombatState state) {
+        PlayerCombatState last = pvpPlayers.remove(pvpPlayers.size() - 1);
+        if (last != state) {
+            pvpPlayers.set(state.pvpSlot, last);
+            last.pvpSlot = state.pvpSlot;
+        }
+        state.pvpSlot = -1;
+    }
+    
+    /**
+     * Restarts the PvP timeout of a player who is still fighting; ignored outside PvP mode
+     */
+    public void refreshPvPTimeout(PlayerCombatState state, long timeoutTicks) {
+        if (state.inPvP) {
+            pvpTimeouts.schedule(state, timeoutTicks);
+        }
+    }
+    
+    /**
+     * Advances one logical tick, reverting every player whose PvP timeout expired
+     */
+    public void tick() {
+        pvpTimeouts.tick(this::exitPvPMode);
+    }
+    
+    /**
+     * Forgets all players and pending timeouts
+     */
+    public void clear() {
+        for (PlayerCombatState state : players.values()) {
+            state.removed = true;
+        }
+        players.clear();
+        pvpTimeouts.clear();
+        queuedModes.clear();
+        for (PlayerCombatState state : pvpPlayers) {
+            state.pvpSlot = -1;
+        }
+        pvpPlayers.clear();
+        bedrockCount = 0;
+        bedrockPvPCount = 0;
+    }
+    
+    /**
+     * Gets the number of logical ticks the engine has advanced
+     */
+    public long getCurrentTick() {
+        return pvpTimeouts.getCurrentTick();
+    }
+    
+    public int getPlayerCount() {
+        return players.size();
+    }
+    
+    public int getBedrockPlayerCount() {
+        return bedrockCount;
+    }
+    
+    public int getPlayersInPvPCount() {
+        return pvpPlayers.size();
+    }
+    
+    /**
+     * Gets the states of the players in PvP mode (read-only view, in no particular order)
+     */
+    public List<PlayerCombatState> getStatesInPvP() {
+        return pvpPlayersView;
+    }
+    
+    /**
+     * Gets the number of Bedrock players currently in PvP mode
+     */
+    public int getBedrockPlayersInPvPCount() {
+        return bedrockPvPCount;
+    }
+    
+    public int getPendingTimeoutCount() {
+        return pvpTimeouts.size();
+    }
+    
+    public int getPendingModeCount() {
+        return queuedModes.size();
+    }
+    
+    public long getAppliedModeWrites() {
+        return appliedModeWrites;
+    }
+    
+    public long getSkippedModeWrites() {
+        return skippedModeWrites;
+    }
+    
+    public Set<UUID> getBedrockPlayers() {
+        Set<UUID> bedrockPlayers = new HashSet<>();
+        for (PlayerCombatState state : players.values()) {
+            if (state.bedrock) {
+                bedrockPlayers.add(state.getPlayerId());
+            }
+        }
+        return bedrockPlayers;
+    }
+    
+    public Set<UUID> getPlayersInPvP() {
+        Set<UUID> playersInPvP = new HashSet<>();
+        for (PlayerCombatState state : pvpPlayers) {
+            playersInPvP.add(state.getPlayerId());
+        }
+        return playersInPvP;
+    }
+}
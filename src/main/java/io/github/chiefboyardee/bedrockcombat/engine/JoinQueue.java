@@ -0,0 +1,170 @@
+package io.github.chiefboyardee.bedrockcombat.engine;
+
+import io.github.chiefboyardee.bedrockcombat.performance.LatencyHistogram;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * Spreads the work of joining players over ticks, so a join storm (restart,
+ * proxy failover) does not land in a single tick. Joins only enqueue their
+ * player; each tick completes queued joins until the batch size or the time
+ * budget is used up, and at least one per tick. A player who is needed before
+ * their turn (e.g., hit in PvP) is completed on the spot.
+ * Not thread-safe, use from the main server thread only.
+ */
+public class JoinQueue {
+    
+    private final ArrayDeque<PlayerCombatState> queue = new ArrayDeque<>();
+    private final Consumer<PlayerCombatState> completion;
+    private final LatencyHistogram drainLatency = new LatencyHistogram();
+    
+    private int batchSize;
+    private long budgetNanos;
+    private int pending;
+    private int maxDepth;
+    private long completed;
+    private long forced;
+    
+    /**
+     * @param completion the deferred part of a join, run once per queued player
+     */
+    public JoinQueue(Consumer<PlayerCombatState> completion, int batchSize, long budgetMicros) {
+        this.completion = completion;
+        setLimits(batchSize, budgetMicros);
+    }
+    
+    /**
+     * Applies new limits (e.g., after a reload)
+     * @param batchSize most joins completed per tick
+     * @param budgetMicros time after which no further join is started in a tick
+     */
+    public void setLimits(int batchSize, long budgetMicros) {
+        this.batchSize = Math.max(1, batchSize);
+        this.budgetNanos = Math.max(0L, budgetMicros) * 1000L;
+    }
+    
+    /**
+     * Queues the rest of a player's join
+     */
+    public void enqueue(PlayerCombatState state) {
+        if (state.joinPending) {
+            return;
+        }
+        state.joinPending = true;
+        state.joinQueuedAt = System.nanoTime();
+        queue.add(state);
+        pending++;
+        maxDepth = Math.max(maxDepth, pending);
+    }
+    
+    /**
+     * Completes a queued join right away
+     * @return true if the player was still pending
+     */
+    public boolean completeNow(PlayerCombatState state) {
+        if (!state.joinPending) {
+            return false;
+        }
+        forced++;
+        complete(state);
+        return true;
+    }
+    
+    /**
+     * Drops a queued join (e.g., the player left before their turn)
+     * @return true if the player was still pending
+     */
+    public boolean cancel(PlayerCombatState state) {
+        if (!state.joinPending) {
+            return false;
+        }
+        // The queue entry is skipped when it comes up
+        state.joinPending = false;
+        pending--;
+        return true;
+    }
+    
+    /**
+     * Completes queued joins in order until the batch size or time budget is used up
+     * @return the number of joins completed
+     */
+    public int drain() {
+        if (pending == 0) {
+            queue.clear();
+            return 0;
+        }
+        long startNanos = System.nanoTime();
+        int done = 0;
+        while (done < batchSize) {
+            PlayerCombatState state = queue.poll();
+            if (state == null) {
+                break;
+            }
+            if (!state.joinPending) {
+                // Completed early or cancelled
+                continue;
+            }
+            if (state.removed) {
+                // Replaced by a newer session without a quit
+                state.joinPending = false;
+                pending--;
+                continue;
+            }
+            complete(state);
+            done++;
+            if (System.nanoTime() - startNanos >= budgetNanos) {
+                break;
+            }
+        }
+        return done;
+    }
+    
+    /**
+     * Forgets all queued joins without completing them
+     */
+    public void clear() {
+        for (PlayerCombatState state : queue) {
+            state.joinPending = false;
+        }
+        queue.clear();
+        pending = 0;
+    }
+    
+    /**
+     * Gets the number of players waiting for their join to complete
+     */
+    public int getDepth() {
+        return pending;
+    }
+    
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+    
+    public long getCompletedCount() {
+        return completed;
+    }
+    
+    /**
+     * Gets the number of joins completed ahead of their turn
+     */
+    public long getForcedCount() {
+        return forced;
+    }
+    
+    /**
+     * Gets the time from enqueueing to completion of each join
+     */
+    public LatencyHistogram getDrainLatency() {
+        return drainLatency;
+    }
+    
+    private void complete(PlayerCombatState state) {
+        state.joinPending = false;
+        pending--;
+        completed++;
+        drainLatency.record(System.nanoTime() - state.joinQueuedAt);
+        completion.accept(state);
+    }
+}
@@ -0,0 +1,203 @@
+package io.github.chiefboyardee.bedrockcombat.engine;
+
+import io.github.chiefboyardee.bedrockcombat.combat.CombatMode;
+import io.github.chiefboyardee.bedrockcombat.config.WorldCombatPolicy;
+import io.github.chiefboyardee.bedrockcombat.pvp.PvPTimeoutWheel;
+
+import java.util.UUID;
+
+/**
+ * Everything the plugin tracks about one online player, found with a single lookup.
+ * Created when the player joins and dropped when they leave, so nothing can outlive
+ * the session or drift out of sync. Combat fields change only through the
+ * {@link CombatEngine}; the platform, world policy and HUD fields are kept by the
+ * server adapter. The PvP timeout is the object itself, linked into the engine's wheel.
+ */
+public final class PlayerCombatState extends PvPTimeoutWheel.Entry {
+    
+    private final UUID playerId;
+    private final Object handle;
+    
+    // Platform and world, set by the server adapter
+    private boolean bedrockPlatform;
+    private boolean storedPreference;
+    private WorldCombatPolicy policy = WorldCombatPolicy.DEFAULT;
+    
+    // Combat, owned by the engine
+    boolean bedrock;
+    boolean inPvP;
+    int pvpSlot = -1;
+    CombatMode appliedMode;
+    CombatMode requestedMode;
+    boolean modeQueued;
+    boolean removed;
+    
+    // Deferred join, owned by the join queue
+    boolean joinPending;
+    long joinQueuedAt;
+    
+    // Last action bar content, owned by the HUD
+    private int hudCode = -1;
+    private long hudSentTick;
+    private boolean hudQueued;
+    private int hudSlot = -1;
+    private int bossBarKey = -1;
+    private boolean bossBarQueued;
+    
+    PlayerCombatState(UUID playerId, Object handle) {
+        this.playerId = playerId;
+        this.handle = handle;
+    }
+    
+    public UUID getPlayerId() {
+        return playerId;
+    }
+    
+    /**
+     * Gets the server's own player object, opaque to the engine (a Bukkit Player on Bukkit)
+     */
+    public Object getHandle() {
+        return handle;
+    }
+    
+    /**
+     * Whether the player was detected as a Bedrock player
+     */
+    public boolean isBedrockPlatform() {
+        return bedrockPlatform;
+    }
+    
+    public void setBedrockPlatform(boolean bedrockPlatform) {
+        this.bedrockPlatform = bedrockPlatform;
+    }
+    
+    /**
+     * Whether the combat preference came from the database; otherwise it follows detection
+     */
+    public boolean hasStoredPreference() {
+        return storedPreference;
+    }
+    
+    public void setStoredPreference(boolean storedPreference) {
+        this.storedPreference = storedPreference;
+    }
+    
+    /**
+     * Gets the combat policy of the player's current world
+     */
+    public WorldCombatPolicy getPolicy() {
+        return policy;
+    }
+    
+    public void setPolicy(WorldCombatPolicy policy) {
+        this.policy = policy;
+    }
+    
+    /**
+     * Whether the player prefers Bedrock combat (detected or stored preference)
+     */
+    public boolean isBedrock() {
+        return bedrock;
+    }
+    
+    /**
+     * Whether the player is in PvP mode (temporarily using Java combat)
+     */
+    public boolean isInPvP() {
+        return inPvP;
+    }
+    
+    /**
+     * Gets the mode last applied to the player, or null if none was applied this session
+     */
+    public CombatMode getAppliedMode() {
+        return appliedMode;
+    }
+    
+    /**
+     * Whether the player has left; effects for removed players are dropped
+     */
+    public boolean isRemoved() {
+        return removed;
+    }
+    
+    /**
+     * Whether the rest of the player's join (detection, combat mode, welcome) is still queued
+     */
+    public boolean isJoinPending() {
+        return joinPending;
+    }
+    
+    /**
+     * Gets the code of the message the action bar last showed, or -1 if unknown
+     */
+    public int getHudCode() {
+        return hudCode;
+    }
+    
+    /**
+     * Gets the HUD tick the last message was sent at
+     */
+    public long getHudSentTick() {
+        return hudSentTick;
+    }
+    
+    /**
+     * Records what the action bar last showed
+     */
+    public void setHud(int code, long sentTick) {
+        this.hudCode = code;
+        this.hudSentTick = sentTick;
+    }
+    
+    /**
+     * Whether the player is queued for an action bar refresh ahead of their turn
+     */
+    public boolean isHudQueued() {
+        return hudQueued;
+    }
+    
+    public void setHudQueued(boolean hudQueued) {
+        this.hudQueued = hudQueued;
+    }
+    
+    /**
+     * Gets the player's index in their action bar refresh bucket, or -1 if not bucketed
+     */
+    public int getHudSlot() {
+        return hudSlot;
+    }
+    
+    public void setHudSlot(int hudSlot) {
+        this.hudSlot = hudSlot;
+    }
+    
+    /**
+     * Gets the key of the shared boss bar the player is shown, or -1 for none; kept by the boss bar manager
+     */
+    public int getBossBarKey() {
+        return bossBarKey;
+    }
+    
+    public void setBossBarKey(int bossBarKey) {
+        this.bossBarKey = bossBarKey;
+    }
+    
+    /**
+     * Whether the player is queued for a boss bar check
+     */
+    public boolean isBossBarQueued() {
+        return bossBarQueued;
+    }
+    
+    public void setBossBarQueued(boolean bossBarQueued) {
+        this.bossBarQueued = bossBarQueued;
+    }
+    
+    /**
+     * Forgets what the action bar last showed, so the next update starts fresh
+     */
+    public void resetHud() {
+        hudCode = -1;
+    }
+}
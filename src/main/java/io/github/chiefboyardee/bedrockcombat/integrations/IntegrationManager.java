@@ -1,9 +1,19 @@
 package io.github.chiefboyardee.bedrockcombat.integrations;
 
 import io.github.chiefboyardee.bedrockcombat.config.ConfigManager;
+import io.github.chiefboyardee.bedrockcombat.config.ConfigSnapshot;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Simplified integration manager for BedrockCombatCompat
  * Handles integration with other plugins
@@ -14,6 +24,24 @@ public class IntegrationManager {
     private final ConfigManager configManager;
     private boolean floodgateEnabled;
     
+    /** Most pre-login results kept for joins that have not happened yet */
+    private static final int MAX_PENDING_MATCHES = 1024;
+    
+    /** Pre-login results not picked up by a join within this time are dropped */
+    private static final long PENDING_MATCH_TTL_MILLIS = 60000L;
+    
+    /** FloodgateApi#isFloodgatePlayer bound to the API instance, or null when unavailable */
+    private volatile MethodHandle floodgateProbe;
+    
+    /** Custom username rules, checked in addition to Floodgate */
+    private volatile UsernameRules customRules = UsernameRules.NONE;
+    
+    /** Floodgate prefix plus custom rules, used when Floodgate is not available */
+    private volatile UsernameRules fallbackRules = UsernameRules.NONE;
+    
+    /** Rule results computed during async pre-login, taken by the join */
+    private final Map<UUID, PendingMatch> pendingMatches = new ConcurrentHashMap<>();
+    
     public IntegrationManager(JavaPlugin plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
@@ -25,42 +53,116 @@ public class IntegrationManager {
     public void initialize() {
         // Check for Floodgate
         floodgateEnabled = plugin.getServer().getPluginManager().getPlugin("floodgate") != null;
+        floodgateProbe = null;
         
         if (floodgateEnabled) {
-            plugin.getLogger().info("Floodgate integration enabled");
+            try {
+                // Use reflection once to avoid compile-time dependency on Floodgate API
+                floodgateProbe = bindFloodgateProbe(Class.forName("org.geysermc.floodgate.api.FloodgateApi"));
+                plugin.getLogger().info("Floodgate integration enabled");
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to bind Floodgate API - using fallback detection: " + e.getMessage());
+            }
         } else {
             plugin.getLogger().info("Floodgate not found - using fallback detection");
         }
+        
+        compileRules(configManager.getSnapshot());
+    }
+    
+    /**
+     * Compiles the username rules once, so each name is classified in one pass
+     */
+    private void compileRules(ConfigSnapshot config) {
+        boolean custom = config.isCustomRulesEnabled();
+        List<String> patterns = custom ? config.getCustomRulePatterns() : Collections.emptyList();
+        customRules = UsernameRules.compile(null, false, patterns, config.isCustomRulesCaseSensitive());
+        fallbackRules = UsernameRules.compile(config.getFloodgatePrefix(), config.isFloodgatePrefixCaseSensitive(),
+            patterns, config.isCustomRulesCaseSensitive());
+        if (custom) {
+            plugin.getLogger().info("Custom detection rules compiled: " + customRules);
+        }
+    }
+    
+    /**
+     * Resolves FloodgateApi.getInstance() and binds isFloodgatePlayer(UUID) to it
+     */
+    static MethodHandle bindFloodgateProbe(Class<?> floodgateApiClass) throws ReflectiveOperationException {
+        Object apiInstance = floodgateApiClass.getMethod("getInstance").invoke(null);
+        if (apiInstance == null) {
+            throw new IllegalStateException("FloodgateApi.getInstance() returned null");
+        }
+        return MethodHandles.publicLookup()
+            .findVirtual(floodgateApiClass, "isFloodgatePlayer", MethodType.methodType(boolean.class, UUID.class))
+            .bindTo(apiInstance);
+    }
+    
+    /**
+     * Evaluates the username rules for a player who is logging in, off the main thread,
+     * so the join only has to pick up the result
+     */
+    public void preparePlayer(UUID playerId, String name) {
+        UsernameRules rules = floodgateProbe != null ? customRules : fallbackRules;
+        if (rules.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (pendingMatches.size() >= MAX_PENDING_MATCHES) {
+            // Only results left by logins that never completed are old enough to drop
+            pendingMatches.values().removeIf(match -> now - match.createdAt > PENDING_MATCH_TTL_MILLIS);
+            if (pendingMatches.size() >= MAX_PENDING_MATCHES) {
+                // Still full of live logins: this join evaluates the rules itself
+                return;
+            }
+        }
+        pendingMatches.put(playerId, new PendingMatch(rules.matches(name), now));
     }
     
     /**
-     * Checks if a player is a Bedrock player using available integrations
+     * Drops the pre-login result of a player whose login was denied or who left
+     */
+    public void forgetPlayer(UUID playerId) {
+        pendingMatches.remove(playerId);
+    }
+    
+    /**
+     * Checks if a player is a Bedrock player using available integrations.
+     * Runs the full detection, so callers keep the result in the player's combat state.
      */
     public boolean isBedrockPlayer(Player player) {
-        if (floodgateEnabled) {
+        PendingMatch pending = pendingMatches.remove(player.getUniqueId());
+        Boolean prepared = pending != null ? pending.matches : null;
+        MethodHandle probe = floodgateProbe;
+        if (probe != null) {
             try {
-                // Use reflection to avoid compile-time dependency on Floodgate API
-                Class<?> floodgateApiClass = Class.forName("org.geysermc.floodgate.api.FloodgateApi");
-                Object apiInstance = floodgateApiClass.getMethod("getInstance").invoke(null);
-                Boolean isFloodgatePlayer = (Boolean) floodgateApiClass
-                    .getMethod("isFloodgatePlayer", java.util.UUID.class)
-                    .invoke(apiInstance, player.getUniqueId());
-                return isFloodgatePlayer != null && isFloodgatePlayer;
-            } catch (Exception e) {
+                if ((boolean) probe.invokeExact(player.getUniqueId())) {
+                    return true;
+                }
+                return prepared != null ? prepared : customRules.matches(player.getName());
+            } catch (Throwable e) {
                 plugin.getLogger().warning("Failed to check Floodgate status for " + player.getName() + ": " + e.getMessage());
                 // Fall through to prefix detection
+                return fallbackRules.matches(player.getName());
             }
         }
         
-        // Fallback to prefix detection
-        String prefix = configManager.getFloodgatePrefix();
-        return player.getName().startsWith(prefix);
+        // Fallback to prefix and custom rule detection
+        return prepared != null ? prepared : fallbackRules.matches(player.getName());
+    }
+    
+    /**
+     * Gets the rules checked for the current integrations
+     */
+    public UsernameRules getActiveRules() {
+        return floodgateProbe != null ? customRules : fallbackRules;
     }
     
     /**
      * Disables all integrations
      */
     public void disable() {
+        floodgateProbe = null;
+        pendingMatches.clear();
         plugin.getLogger().info("Integration manager disabled");
     }
     
@@ -68,6 +170,7 @@ public class IntegrationManager {
      * Reloads all integrations
      */
     public void reload() {
+        // Also drops the pre-login results, computed with the old rules
         disable();
         initialize();
     }
@@ -78,4 +181,17 @@ public class IntegrationManager {
     public boolean isFloodgateEnabled() {
         return floodgateEnabled;
     }
+    
+    /**
+     * Username rule result of a login, with the time it was computed
+     */
+    private static final class PendingMatch {
+        final boolean matches;
+        final long createdAt;
+        
+        PendingMatch(boolean matches, long createdAt) {
+            this.matches = matches;
+            this.createdAt = createdAt;
+        }
+    }
 }
\ No newline at end of file
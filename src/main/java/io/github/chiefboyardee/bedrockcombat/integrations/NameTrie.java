@@ -0,0 +1,93 @@
+package io.github.chiefboyardee.bedrockcombat.integrations;
+
+import java.util.Arrays;
+
+/**
+ * Character trie of literal name prefixes, or of suffixes when built to match from the end.
+ * Player names are short and tries of configured rules are small, so children are
+ * kept in small arrays and searched linearly.
+ */
+final class NameTrie {
+    
+    private final boolean caseSensitive;
+    private final boolean fromEnd;
+    private final Node root = new Node();
+    private int size;
+    
+    NameTrie(boolean caseSensitive, boolean fromEnd) {
+        this.caseSensitive = caseSensitive;
+        this.fromEnd = fromEnd;
+    }
+    
+    /**
+     * Adds a literal prefix (or suffix)
+     */
+    void add(String literal) {
+        Node node = root;
+        int length = literal.length();
+        for (int i = 0; i < length; i++) {
+            node = node.getOrAddChild(fold(literal.charAt(fromEnd ? length - 1 - i : i)));
+        }
+        if (!node.terminal) {
+            node.terminal = true;
+            size++;
+        }
+    }
+    
+    /**
+     * Checks if the name starts (or ends) with any of the literals, in a single walk
+     */
+    boolean matches(String name) {
+        Node node = root;
+        int length = name.length();
+        for (int i = 0; i < length; i++) {
+            if (node.terminal) {
+                return true;
+            }
+            node = node.getChild(fold(name.charAt(fromEnd ? length - 1 - i : i)));
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.terminal;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    private char fold(char c) {
+        return caseSensitive ? c : Character.toLowerCase(Character.toUpperCase(c));
+    }
+    
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        boolean terminal;
+        
+        Node getChild(char key) {
+            char[] keys = this.keys;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+        
+        Node getOrAddChild(char key) {
+            Node child = getChild(key);
+            if (child == null) {
+                child = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package io.github.chiefboyardee.bedrockcombat.integrations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Username rules that mark a player as a Bedrock player, compiled once per load.
+ * Patterns that only anchor a literal at the start or the end of the name (such as
+ * {@code ^\*.*} or {@code .*_mobile$}) go into prefix and suffix tries; the rest are
+ * joined into one alternation, so a name is checked against every rule in one pass.
+ * Patterns are searched in the name (Matcher.find), as their anchors suggest.
+ * Immutable and thread-safe.
+ */
+public final class UsernameRules {
+    
+    /** Matches no name */
+    public static final UsernameRules NONE = new UsernameRules(null, null, null, null, null, 0);
+    
+    private final NameTrie prefixes;
+    private final NameTrie suffixes;
+    private final NameTrie caseInsensitivePrefixes;
+    private final NameTrie caseInsensitiveSuffixes;
+    private final Pattern regex;
+    private final int regexCount;
+    
+    private UsernameRules(NameTrie prefixes, NameTrie suffixes, NameTrie caseInsensitivePrefixes,
+                          NameTrie caseInsensitiveSuffixes, Pattern regex, int regexCount) {
+        this.prefixes = prefixes;
+        this.suffixes = suffixes;
+        this.caseInsensitivePrefixes = caseInsensitivePrefixes;
+        this.caseInsensitiveSuffixes = caseInsensitiveSuffixes;
+        this.regex = regex;
+        this.regexCount = regexCount;
+    }
+    
+    /**
+     * Compiles a literal prefix and a list of regex patterns
+     * @param prefix literal username prefix, or null/empty for none
+     * @param patterns regex patterns, already validated
+     * @throws java.util.regex.PatternSyntaxException if a pattern is not a valid regex
+     */
+    public static UsernameRules compile(String prefix, boolean prefixCaseSensitive,
+                                        List<String> patterns, boolean patternsCaseSensitive) {
+        NameTrie[] tries = new NameTrie[4];
+        List<String> regexes = new ArrayList<>();
+        
+        if (prefix != null && !prefix.isEmpty()) {
+            trie(tries, prefixCaseSensitive, false).add(prefix);
+        }
+        for (String pattern : patterns) {
+            String literal = literalPrefix(pattern);
+            if (literal != null) {
+                trie(tries, patternsCaseSensitive, false).add(literal);
+                continue;
+            }
+            literal = literalSuffix(pattern);
+            if (literal != null) {
+                trie(tries, patternsCaseSensitive, true).add(literal);
+                continue;
+            }
+            regexes.add(pattern);
+        }
+        
+        Pattern regex = null;
+        if (!regexes.isEmpty()) {
+            StringBuilder alternation = new StringBuilder();
+            for (String pattern : regexes) {
+                if (alternation.length() > 0) {
+                    alternation.append('|');
+                }
+                // Non-capturing groups keep each pattern's inline flags and alternations to itself
+                alternation.append("(?:").append(pattern).append(')');
+            }
+            regex = Pattern.compile(alternation.toString(), patternsCaseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        }
+        
+        if (tries[0] == null && tries[1] == null && tries[2] == null && tries[3] == null && regex == null) {
+            return NONE;
+        }
+        return new UsernameRules(tries[0], tries[1], tries[2], tries[3], regex, regexes.size());
+    }
+    
+    /**
+     * Checks if a username matches any rule
+     */
+    public boolean matches(String name) {
+        return (prefixes != null && prefixes.matches(name))
+            || (caseInsensitivePrefixes != null && caseInsensitivePrefixes.matches(name))
+            || (suffixes != null && suffixes.matches(name))
+            || (caseInsensitiveSuffixes != null && caseInsensitiveSuffixes.matches(name))
+            || (regex != null && regex.matcher(name).find());
+    }
+    
+    /**
+     * Checks if there are no rules at all
+     */
+    public boolean isEmpty() {
+        return this == NONE;
+    }
+    
+    public int getPrefixCount() {
+        return size(prefixes) + size(caseInsensitivePrefixes);
+    }
+    
+    public int getSuffixCount() {
+        return size(suffixes) + size(caseInsensitiveSuffixes);
+    }
+    
+    public int getRegexCount() {
+        return regexCount;
+    }
+    
+    @Override
+    public String toString() {
+        return getPrefixCount() + " prefixes, " + getSuffixCount() + " suffixes, " + regexCount + " regexes";
+    }
+    
+    private static NameTrie trie(NameTrie[] tries, boolean caseSensitive, boolean suffix) {
+        int index = (suffix ? 1 : 0) + (caseSensitive ? 0 : 2);
+        if (tries[index] == null) {
+            tries[index] = new NameTrie(caseSensitive, suffix);
+        }
+        return tries[index];
+    }
+    
+    private static int size(NameTrie trie) {
+        return trie != null ? trie.size() : 0;
+    }
+    
+    /**
+     * Gets the literal of a pattern of the form {@code ^literal}, {@code ^literal.*} or
+     * {@code ^literal.*$}, or null if the pattern has another form
+     */
+    static String literalPrefix(String pattern) {
+        if (!pattern.startsWith("^")) {
+            return null;
+        }
+        String body = pattern.substring(1);
+        if (body.endsWith(".*$")) {
+            body = body.substring(0, body.length() - 3);
+        } else if (body.endsWith(".*")) {
+            body = body.substring(0, body.length() - 2);
+        }
+        return unescapeLiteral(body);
+    }
+    
+    /**
+     * Gets the literal of a pattern of the form {@code literal$}, {@code .*literal$} or
+     * {@code ^.*literal$}, or null if the pattern has another form
+     */
+    static String literalSuffix(String pattern) {
+        if (!pattern.endsWith("$") || pattern.endsWith("\\$")) {
+            return null;
+        }
+        String body = pattern.substring(0, pattern.length() - 1);
+        if (body.startsWith("^.*")) {
+            body = body.substring(3);
+        } else if (body.startsWith(".*")) {
+            body = body.substring(2);
+        } else if (body.startsWith("^")) {
+            // Anchored at both ends: a full match, not a suffix
+            return null;
+        }
+        return unescapeLiteral(body);
+    }
+    
+    /**
+     * Resolves escapes such as {@code \*} and {@code \.}; returns null if the text
+     * contains any regex construct other than an escaped punctuation character
+     */
+    private static String unescapeLiteral(String text) {
+        StringBuilder literal = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                if (i + 1 == text.length()) {
+                    return null;
+                }
+                char escaped = text.charAt(++i);
+                if (Character.isLetterOrDigit(escaped)) {
+                    // \d, \w, \Q, back-references...
+                    return null;
+                }
+                literal.append(escaped);
+            } else if (".^$*+?()[]{}|".indexOf(c) >= 0) {
+                return null;
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.toString();
+    }
+}
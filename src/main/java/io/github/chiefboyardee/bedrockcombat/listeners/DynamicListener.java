@@ -0,0 +1,56 @@
+package io.github.chiefboyardee.bedrockcombat.listeners;
+
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Listener that is only registered while the plugin needs its events.
+ * An unregistered listener costs nothing: the server never dispatches to it.
+ * Use from the main server thread only.
+ */
+public abstract class DynamicListener implements Listener {
+    
+    private final Plugin plugin;
+    private final String name;
+    private boolean registered;
+    private long registrations;
+    
+    protected DynamicListener(Plugin plugin, String name) {
+        this.plugin = plugin;
+        this.name = name;
+    }
+    
+    /**
+     * Registers or unregisters the listener; does nothing if it is already in that state
+     * @return true if the registration changed
+     */
+    public boolean setRegistered(boolean register) {
+        if (register == registered) {
+            return false;
+        }
+        if (register) {
+            plugin.getServer().getPluginManager().registerEvents(this, plugin);
+            registrations++;
+        } else {
+            HandlerList.unregisterAll(this);
+        }
+        registered = register;
+        return true;
+    }
+    
+    public boolean isRegistered() {
+        return registered;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Gets how many times the listener was registered since startup
+     */
+    public long getRegistrationCount() {
+        return registrations;
+    }
+}
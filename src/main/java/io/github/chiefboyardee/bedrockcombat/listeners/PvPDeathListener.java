@@ -0,0 +1,62 @@
+package io.github.chiefboyardee.bedrockcombat.listeners;
+
+import io.github.chiefboyardee.bedrockcombat.BedrockCombatPlugin;
+import io.github.chiefboyardee.bedrockcombat.engine.CombatEngine;
+import io.github.chiefboyardee.bedrockcombat.engine.PlayerCombatState;
+import io.github.chiefboyardee.bedrockcombat.performance.Operation;
+import io.github.chiefboyardee.bedrockcombat.pvp.PvPDetectionSystem;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.entity.PlayerDeathEvent;
+
+import java.util.UUID;
+
+/**
+ * Ends the fight of a player who died and restarts their opponents' timeouts.
+ * Registered only while at least one player is in PvP mode; sessions left by
+ * deaths outside PvP mode simply expire.
+ */
+public class PvPDeathListener extends DynamicListener {
+    
+    private final BedrockCombatPlugin plugin;
+    
+    public PvPDeathListener(BedrockCombatPlugin plugin) {
+        super(plugin, "pvp-death");
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Handles player death - immediately revert survivors back to their preferred combat mode
+     */
+    @EventHandler
+    public void onPlayerDeath(PlayerDeathEvent event) {
+        long startNanos = System.nanoTime();
+        try {
+            Player deadPlayer = event.getEntity();
+            CombatEngine combatEngine = plugin.getCombatEngine();
+            
+            // Remove dead player from PvP mode
+            PlayerCombatState deadState = combatEngine.getState(deadPlayer.getUniqueId());
+            if (deadState != null) {
+                combatEngine.exitPvPMode(deadState);
+            }
+            
+            // Start timeouts only for the players who actually fought the dead player
+            PvPDetectionSystem pvpDetectionSystem = plugin.getPvPDetectionSystem();
+            if (pvpDetectionSystem != null) {
+                long timeoutTicks = plugin.getConfigManager().getSnapshot().getPvpTimeoutTicks();
+                for (UUID opponentId : pvpDetectionSystem.getRecentOpponents(deadPlayer)) {
+                    PlayerCombatState opponent = combatEngine.getState(opponentId);
+                    if (opponent != null) {
+                        combatEngine.refreshPvPTimeout(opponent, timeoutTicks);
+                    }
+                }
+                
+                // The fight is over for the dead player
+                pvpDetectionSystem.removeFromPvP(deadPlayer);
+            }
+        } finally {
+            plugin.getPerformanceMonitor().recordTime(Operation.PLAYER_DEATH, startNanos);
+        }
+    }
+}
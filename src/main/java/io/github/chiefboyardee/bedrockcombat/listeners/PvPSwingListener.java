@@ -0,0 +1,65 @@
+package io.github.chiefboyardee.bedrockcombat.listeners;
+
+import io.github.chiefboyardee.bedrockcombat.BedrockCombatPlugin;
+import io.github.chiefboyardee.bedrockcombat.config.ConfigSnapshot;
+import io.github.chiefboyardee.bedrockcombat.engine.PlayerCombatState;
+import io.github.chiefboyardee.bedrockcombat.performance.Operation;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+
+/**
+ * Refreshes the PvP timeout of Bedrock players on every swing, not just on hits.
+ * Registered only while at least one Bedrock player is in PvP mode.
+ */
+public class PvPSwingListener extends DynamicListener {
+    
+    private final BedrockCombatPlugin plugin;
+    
+    public PvPSwingListener(BedrockCombatPlugin plugin) {
+        super(plugin, "pvp-swing");
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Handles player interactions to apply cooldown to all swings during PvP mode
+     * This ensures Bedrock players experience consistent cooldown during PvP, not just on hits
+     */
+    @EventHandler
+    public void onPlayerInteract(PlayerInteractEvent event) {
+        long startNanos = System.nanoTime();
+        try {
+            Player player = event.getPlayer();
+            
+            // Only process left-click air/block actions (swings)
+            if (event.getAction() != Action.LEFT_CLICK_AIR && event.getAction() != Action.LEFT_CLICK_BLOCK) {
+                return;
+            }
+            
+            // Only apply to Bedrock players who are currently in PvP mode
+            PlayerCombatState state = plugin.getCombatEngine().getState(player.getUniqueId());
+            if (state == null || !state.isBedrock() || !state.isInPvP()) {
+                return;
+            }
+            
+            // Check if PvP detection is enabled
+            ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+            if (!config.isPvpDetectionEnabled()) {
+                return;
+            }
+            
+            // Record performance metrics
+            plugin.getPerformanceMonitor().recordOperation(Operation.PVP_SWING);
+            
+            // Refresh PvP timeout since player is actively swinging during PvP
+            plugin.getCombatEngine().refreshPvPTimeout(state, config.getPvpTimeoutTicks());
+            
+            // The cooldown effect is already applied by being in PvP mode (Java combat)
+            // This event handler ensures the timeout is refreshed on all swings, not just hits
+            plugin.getLogger().fine("PvP swing detected for Bedrock player: " + player.getName());
+        } finally {
+            plugin.getPerformanceMonitor().recordTime(Operation.PLAYER_INTERACT, startNanos);
+        }
+    }
+}
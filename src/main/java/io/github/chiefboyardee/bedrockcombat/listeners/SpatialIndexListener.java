@@ -0,0 +1,101 @@
+package io.github.chiefboyardee.bedrockcombat.listeners;
+
+import io.github.chiefboyardee.bedrockcombat.world.PlayerSpatialIndex;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerPortalEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Keeps the positions in a PlayerSpatialIndex current. Every position change
+ * (move, teleport, portal, respawn, world change) is compared against the indexed
+ * cell, so a missed event is corrected by the next one.
+ * Registered only while a feature queries the index (bystander tagging): the index is
+ * filled with all online players on registration and emptied when the listener is unregistered.
+ */
+public class SpatialIndexListener extends DynamicListener {
+    
+    private final Plugin plugin;
+    private final PlayerSpatialIndex spatialIndex;
+    
+    public SpatialIndexListener(Plugin plugin, PlayerSpatialIndex spatialIndex) {
+        super(plugin, "spatial-index");
+        this.plugin = plugin;
+        this.spatialIndex = spatialIndex;
+    }
+    
+    @Override
+    public boolean setRegistered(boolean register) {
+        if (!super.setRegistered(register)) {
+            return false;
+        }
+        spatialIndex.clear();
+        if (register) {
+            for (Player player : plugin.getServer().getOnlinePlayers()) {
+                spatialIndex.add(player);
+            }
+        }
+        return true;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        spatialIndex.add(event.getPlayer());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        spatialIndex.remove(event.getPlayer().getUniqueId());
+    }
+    
+    /**
+     * Moves the player in the index; update returns early while they stay in their indexed cell
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        moveTo(event.getPlayer(), event.getTo());
+    }
+    
+    /**
+     * Teleports have their own handler list, so they are tracked separately
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        moveTo(event.getPlayer(), event.getTo());
+    }
+    
+    /**
+     * Portal travel has its own handler list as well
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerPortal(PlayerPortalEvent event) {
+        moveTo(event.getPlayer(), event.getTo());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        moveTo(event.getPlayer(), event.getRespawnLocation());
+    }
+    
+    /**
+     * Catches world changes no other event reported, e.g. by other plugins
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        spatialIndex.add(event.getPlayer());
+    }
+    
+    private void moveTo(Player player, Location to) {
+        if (to != null && to.getWorld() != null) {
+            spatialIndex.update(player, to);
+        }
+    }
+}
\ No newline at end of file
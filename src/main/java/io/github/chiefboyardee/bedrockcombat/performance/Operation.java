@@ -0,0 +1,44 @@
+package io.github.chiefboyardee.bedrockcombat.performance;
+
+/**
+ * Operations tracked by the performance monitor.
+ * Timed operations wrap a whole event handler or scheduled task; the others are plain counters.
+ */
+public enum Operation {
+    // Event handlers
+    PLAYER_PRE_LOGIN("player_pre_login", true),
+    PLAYER_JOIN("player_join", true),
+    PLAYER_JOIN_COMPLETE("player_join_complete", true),
+    PLAYER_QUIT("player_quit", true),
+    PLAYER_DAMAGE("player_damage_handler", true),
+    PLAYER_DEATH("player_death", true),
+    PLAYER_INTERACT("player_interact_handler", true),
+    
+    // Scheduled tasks
+    COMBAT_TICK("combat_tick", true),
+    ACTION_BAR_UPDATE("action_bar_update", true),
+    BOSS_BAR_UPDATE("boss_bar_update", true),
+    
+    // Counters
+    PVP_EVENT("pvp_event", false),
+    PVP_SWING("pvp_swing", false);
+    
+    private final String displayName;
+    private final boolean timed;
+    
+    Operation(String displayName, boolean timed) {
+        this.displayName = displayName;
+        this.timed = timed;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    /**
+     * Whether this operation records latencies, not just counts
+     */
+    public boolean isTimed() {
+        return timed;
+    }
+}
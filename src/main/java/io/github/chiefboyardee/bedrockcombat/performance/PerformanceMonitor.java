@@ -3,26 +3,32 @@ package io.github.chiefboyardee.bedrockcombat.performance;
 import io.github.chiefboyardee.bedrockcombat.config.ConfigManager;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Simplified performance monitor for BedrockCombatCompat
- * Tracks basic performance metrics
+ * Tracks operation counts, rates and handler latencies.
+ * Safe to record from any thread; recording never locks or allocates.
  */
 public class PerformanceMonitor {
     
+    private static final Operation[] OPERATIONS = Operation.values();
+    
     private final JavaPlugin plugin;
     private final ConfigManager configManager;
-    private final Map<String, Integer> operationCounts;
-    private boolean enabled;
+    private final OperationStats[] stats = new OperationStats[OPERATIONS.length];
+    private volatile boolean enabled;
     private long startTime;
     
     public PerformanceMonitor(JavaPlugin plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
-        this.operationCounts = new HashMap<>();
         this.startTime = System.currentTimeMillis();
+        for (Operation operation : OPERATIONS) {
+            stats[operation.ordinal()] = new OperationStats(operation.isTimed());
+        }
     }
     
     /**
@@ -41,24 +47,59 @@ public class PerformanceMonitor {
     /**
      * Records an operation for performance tracking
      */
-    public void recordOperation(String operationType) {
+    public void recordOperation(Operation operation) {
+        if (!enabled) return;
+        
+        OperationStats operationStats = stats[operation.ordinal()];
+        operationStats.count.increment();
+        operationStats.rate.mark(System.nanoTime());
+    }
+    
+    /**
+     * Records a timed operation that started at the given System.nanoTime()
+     */
+    public void recordTime(Operation operation, long startNanos) {
         if (!enabled) return;
         
-        operationCounts.merge(operationType, 1, Integer::sum);
+        long now = System.nanoTime();
+        OperationStats operationStats = stats[operation.ordinal()];
+        operationStats.count.increment();
+        operationStats.rate.mark(now);
+        if (operationStats.latency != null) {
+            operationStats.latency.record(now - startNanos);
+        }
     }
     
     /**
      * Gets the count for a specific operation type
      */
-    public int getOperationCount(String operationType) {
-        return operationCounts.getOrDefault(operationType, 0);
+    public long getOperationCount(Operation operation) {
+        return stats[operation.ordinal()].count.sum();
     }
     
     /**
      * Gets all operation counts
      */
-    public Map<String, Integer> getAllOperationCounts() {
-        return new HashMap<>(operationCounts);
+    public Map<Operation, Long> getAllOperationCounts() {
+        Map<Operation, Long> counts = new EnumMap<>(Operation.class);
+        for (Operation operation : OPERATIONS) {
+            counts.put(operation, getOperationCount(operation));
+        }
+        return counts;
+    }
+    
+    /**
+     * Gets the latency histogram of a timed operation, or null for plain counters
+     */
+    public LatencyHistogram getLatency(Operation operation) {
+        return stats[operation.ordinal()].latency;
+    }
+    
+    /**
+     * Gets the event rates of an operation
+     */
+    public RateMeter getRate(Operation operation) {
+        return stats[operation.ordinal()].rate;
     }
     
     /**
@@ -79,10 +120,26 @@ public class PerformanceMonitor {
         StringBuilder report = new StringBuilder();
         report.append("=== Performance Report ===\n");
         report.append("Uptime: ").append(getUptime() / 1000).append(" seconds\n");
-        report.append("Operations:\n");
+        report.append("Operations (count, rate/s over 1m/5m/15m, latency p50/p99/max):\n");
         
-        for (Map.Entry<String, Integer> entry : operationCounts.entrySet()) {
-            report.append("  ").append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+        for (Operation operation : OPERATIONS) {
+            OperationStats operationStats = stats[operation.ordinal()];
+            long count = operationStats.count.sum();
+            if (count == 0) {
+                continue;
+            }
+            
+            RateMeter rate = operationStats.rate;
+            report.append("  ").append(operation.getDisplayName()).append(": ").append(count)
+                .append(String.format(", %.2f/%.2f/%.2f", rate.getOneMinuteRate(), rate.getFiveMinuteRate(), rate.getFifteenMinuteRate()));
+            
+            LatencyHistogram latency = operationStats.latency;
+            if (latency != null) {
+                report.append(", ").append(formatNanos(latency.getPercentile(0.50)))
+                    .append("/").append(formatNanos(latency.getPercentile(0.99)))
+                    .append("/").append(formatNanos(latency.getMax()));
+            }
+            report.append("\n");
         }
         
         return report.toString();
@@ -94,7 +151,11 @@ public class PerformanceMonitor {
     public void shutdown() {
         if (enabled) {
             plugin.getLogger().info("Performance monitoring shutdown");
-            plugin.getLogger().info("Final stats: " + operationCounts.size() + " operation types tracked");
+            long total = 0;
+            for (OperationStats operationStats : stats) {
+                total += operationStats.count.sum();
+            }
+            plugin.getLogger().info("Final stats: " + total + " operations recorded");
         }
     }
     
@@ -104,4 +165,27 @@ public class PerformanceMonitor {
     public boolean isEnabled() {
         return enabled;
     }
-}
\ No newline at end of file
+    
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000L) {
+            return nanos + "ns";
+        }
+        if (nanos < 1_000_000L) {
+            return String.format("%.1fµs", nanos / 1_000.0);
+        }
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+    
+    /**
+     * Counter, rates and optional latency histogram of one operation
+     */
+    private static final class OperationStats {
+        final LongAdder count = new LongAdder();
+        final RateMeter rate = new RateMeter();
+        final LatencyHistogram latency;
+        
+        OperationStats(boolean timed) {
+            this.latency = timed ? new LatencyHistogram() : null;
+        }
+    }
+}
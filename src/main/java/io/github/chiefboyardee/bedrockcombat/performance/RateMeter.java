@@ -0,0 +1,86 @@
+package io.github.chiefboyardee.bedrockcombat.performance;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exponentially weighted 1, 5 and 15 minute event rates, as in Unix load averages.
+ * The averages advance in 5 second steps, lazily on mark and read, so no task is needed.
+ */
+public class RateMeter {
+    
+    private static final long TICK_NANOS = 5_000_000_000L;
+    private static final double TICK_SECONDS = 5.0;
+    private static final double ALPHA_1 = alpha(1);
+    private static final double ALPHA_5 = alpha(5);
+    private static final double ALPHA_15 = alpha(15);
+    
+    private final LongAdder uncounted = new LongAdder();
+    private final AtomicLong lastTick;
+    
+    // Events per second; only written by the thread that wins the tick
+    private volatile double rate1;
+    private volatile double rate5;
+    private volatile double rate15;
+    private volatile boolean initialized;
+    
+    public RateMeter() {
+        this.lastTick = new AtomicLong(System.nanoTime());
+    }
+    
+    /**
+     * Records one event at the given System.nanoTime()
+     */
+    public void mark(long now) {
+        tickIfNecessary(now);
+        uncounted.increment();
+    }
+    
+    public double getOneMinuteRate() {
+        tickIfNecessary(System.nanoTime());
+        return rate1;
+    }
+    
+    public double getFiveMinuteRate() {
+        tickIfNecessary(System.nanoTime());
+        return rate5;
+    }
+    
+    public double getFifteenMinuteRate() {
+        tickIfNecessary(System.nanoTime());
+        return rate15;
+    }
+    
+    private void tickIfNecessary(long now) {
+        long last = lastTick.get();
+        long elapsed = now - last;
+        if (elapsed < TICK_NANOS) {
+            return;
+        }
+        long ticks = elapsed / TICK_NANOS;
+        if (!lastTick.compareAndSet(last, last + ticks * TICK_NANOS)) {
+            // Another thread is ticking
+            return;
+        }
+        
+        double instantRate = uncounted.sumThenReset() / TICK_SECONDS;
+        for (long i = 0; i < ticks; i++) {
+            if (!initialized) {
+                rate1 = instantRate;
+                rate5 = instantRate;
+                rate15 = instantRate;
+                initialized = true;
+            } else {
+                rate1 += ALPHA_1 * (instantRate - rate1);
+                rate5 += ALPHA_5 * (instantRate - rate5);
+                rate15 += ALPHA_15 * (instantRate - rate15);
+            }
+            // Only the first missed interval saw events
+            instantRate = 0.0;
+        }
+    }
+    
+    private static double alpha(int minutes) {
+        return 1.0 - Math.exp(-TICK_SECONDS / 60.0 / minutes);
+    }
+}
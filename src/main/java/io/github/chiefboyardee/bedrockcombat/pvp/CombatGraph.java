@@ -0,0 +1,107 @@
+package io.github.chiefboyardee.bedrockcombat.pvp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Undirected graph of who recently fought whom. Each edge keeps the time of the
+ * last hit between two players and only counts while it is younger than the PvP
+ * timeout. The number of opponents per player is bounded; the oldest edge is
+ * dropped when a player exceeds it.
+ * Not thread-safe, use from the main server thread only.
+ */
+public class CombatGraph {
+    
+    private final int maxOpponents;
+    private final Map<UUID, Map<UUID, Long>> edges = new HashMap<>();
+    
+    public CombatGraph(int maxOpponents) {
+        this.maxOpponents = Math.max(1, maxOpponents);
+    }
+    
+    /**
+     * Records a hit between two players at the given time
+     */
+    public void recordHit(UUID attackerId, UUID victimId, long now) {
+        if (attackerId.equals(victimId)) {
+            return;
+        }
+        link(attackerId, victimId, now);
+        link(victimId, attackerId, now);
+    }
+    
+    /**
+     * Gets the players that fought the given player at or after the given time
+     */
+    public List<UUID> getRecentOpponents(UUID playerId, long since) {
+        Map<UUID, Long> opponents = edges.get(playerId);
+        if (opponents == null) {
+            return Collections.emptyList();
+        }
+        List<UUID> recent = new ArrayList<>(opponents.size());
+        for (Map.Entry<UUID, Long> edge : opponents.entrySet()) {
+            if (edge.getValue() >= since) {
+                recent.add(edge.getKey());
+            }
+        }
+        return recent;
+    }
+    
+    /**
+     * Removes a player and all their edges, touching only their own opponents
+     */
+    public void removePlayer(UUID playerId) {
+        Map<UUID, Long> opponents = edges.remove(playerId);
+        if (opponents == null) {
+            return;
+        }
+        for (UUID opponentId : opponents.keySet()) {
+            unlink(opponentId, playerId);
+        }
+    }
+    
+    /**
+     * Gets the number of players with at least one edge
+     */
+    public int size() {
+        return edges.size();
+    }
+    
+    /**
+     * Removes all edges
+     */
+    public void clear() {
+        edges.clear();
+    }
+    
+    private void link(UUID from, UUID to, long now) {
+        Map<UUID, Long> opponents = edges.computeIfAbsent(from, k -> new HashMap<>(8));
+        if (opponents.put(to, now) == null && opponents.size() > maxOpponents) {
+            // Drop the oldest opponent on both sides
+            UUID oldest = null;
+            long oldestTime = Long.MAX_VALUE;
+            for (Map.Entry<UUID, Long> edge : opponents.entrySet()) {
+                if (edge.getValue() < oldestTime && !edge.getKey().equals(to)) {
+                    oldest = edge.getKey();
+                    oldestTime = edge.getValue();
+                }
+            }
+            opponents.remove(oldest);
+            unlink(oldest, from);
+        }
+    }
+    
+    private void unlink(UUID from, UUID to) {
+        Map<UUID, Long> opponents = edges.get(from);
+        if (opponents != null) {
+            opponents.remove(to);
+            if (opponents.isEmpty()) {
+                edges.remove(from);
+            }
+        }
+    }
+}
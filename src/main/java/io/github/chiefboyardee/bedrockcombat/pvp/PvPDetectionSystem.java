@@ -4,8 +4,7 @@ import io.github.chiefboyardee.bedrockcombat.config.ConfigManager;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -14,17 +13,21 @@ import java.util.UUID;
  */
 public class PvPDetectionSystem {
     
+    /** Maximum number of recent opponents remembered per player */
+    private static final int MAX_OPPONENTS = 16;
+    
     private final JavaPlugin plugin;
     private final ConfigManager configManager;
-    private final Map<UUID, Long> pvpTimestamps;
-    private final Map<UUID, UUID> lastAttacker;
+    private final PvPSessionStore sessions;
+    private final CombatGraph combatGraph;
     private boolean enabled;
     
     public PvPDetectionSystem(JavaPlugin plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
-        this.pvpTimestamps = new HashMap<>();
-        this.lastAttacker = new HashMap<>();
+        this.combatGraph = new CombatGraph(MAX_OPPONENTS);
+        // A player's edges are never younger than their session, so they go together
+        this.sessions = new PvPSessionStore(configManager.getMaxPvPSessions(), combatGraph::removePlayer);
     }
     
     /**
@@ -32,9 +35,10 @@ public class PvPDetectionSystem {
      */
     public void initialize() {
         this.enabled = configManager.isPvpDetectionEnabled();
+        sessions.setMaxSessions(configManager.getMaxPvPSessions());
         
         if (enabled) {
-            plugin.getLogger().info("PvP detection system enabled");
+            plugin.getLogger().info("PvP detection system enabled (max " + configManager.getMaxPvPSessions() + " sessions)");
         } else {
             plugin.getLogger().info("PvP detection system disabled");
         }
@@ -54,13 +58,12 @@ public class PvPDetectionSystem {
         if (!enabled) return;
         
         long currentTime = System.currentTimeMillis();
+        sessions.expire(currentTime);
         
-        // Record PvP timestamp for both players
-        pvpTimestamps.put(attacker.getUniqueId(), currentTime);
-        pvpTimestamps.put(victim.getUniqueId(), currentTime);
-        
-        // Track who attacked whom
-        lastAttacker.put(victim.getUniqueId(), attacker.getUniqueId());
+        // Open or refresh both sessions and track who attacked whom
+        long deadline = currentTime + configManager.getSnapshot().getPvpTimeoutMillis();
+        sessions.record(attacker.getUniqueId(), victim.getUniqueId(), deadline);
+        combatGraph.recordHit(attacker.getUniqueId(), victim.getUniqueId(), currentTime);
         
         plugin.getLogger().fine("PvP event recorded: " + attacker.getName() + " -> " + victim.getName());
     }
@@ -71,30 +74,32 @@ public class PvPDetectionSystem {
     public boolean isInPvP(Player player) {
         if (!enabled) return false;
         
-        Long lastPvpTime = pvpTimestamps.get(player.getUniqueId());
-        if (lastPvpTime == null) return false;
-        
-        long pvpTimeout = configManager.getPvpTimeout() * 1000L; // Convert to milliseconds
-        return (System.currentTimeMillis() - lastPvpTime) < pvpTimeout;
+        return sessions.isActive(player.getUniqueId(), System.currentTimeMillis());
     }
     
     /**
      * Gets the last attacker of a player
      */
     public UUID getLastAttacker(Player player) {
-        return lastAttacker.get(player.getUniqueId());
+        return sessions.getLastAttacker(player.getUniqueId());
+    }
+    
+    /**
+     * Gets the players that fought this player within the PvP timeout, at O(opponents) cost
+     */
+    public List<UUID> getRecentOpponents(Player player) {
+        long since = System.currentTimeMillis() - configManager.getSnapshot().getPvpTimeoutMillis();
+        return combatGraph.getRecentOpponents(player.getUniqueId(), since);
     }
     
     /**
      * Removes a player from PvP state (e.g., when they log out)
      */
     public void removeFromPvP(Player player) {
+        // Only the player's own partners are touched
         UUID playerId = player.getUniqueId();
-        pvpTimestamps.remove(playerId);
-        lastAttacker.remove(playerId);
-        
-        // Also remove this player as an attacker for others
-        lastAttacker.entrySet().removeIf(entry -> entry.getValue().equals(playerId));
+        sessions.remove(playerId);
+        combatGraph.removePlayer(playerId);
     }
     
     /**
@@ -103,29 +108,22 @@ public class PvPDetectionSystem {
     public int getPlayersInPvPCount() {
         if (!enabled) return 0;
         
-        long currentTime = System.currentTimeMillis();
-        long pvpTimeout = configManager.getPvpTimeout() * 1000L;
-        
-        return (int) pvpTimestamps.entrySet().stream()
-                .filter(entry -> (currentTime - entry.getValue()) < pvpTimeout)
-                .count();
+        sessions.expire(System.currentTimeMillis());
+        return sessions.getActiveCount();
     }
     
     /**
-     * Cleans up expired PvP entries
+     * Cleans up expired PvP entries; only sessions that are due are touched
      */
     public void cleanupExpiredEntries() {
-        if (!enabled) return;
-        
-        long currentTime = System.currentTimeMillis();
-        long pvpTimeout = configManager.getPvpTimeout() * 1000L;
-        
-        pvpTimestamps.entrySet().removeIf(entry -> 
-            (currentTime - entry.getValue()) >= pvpTimeout);
-        
-        // Clean up last attacker entries for expired PvP states
-        lastAttacker.entrySet().removeIf(entry -> 
-            !pvpTimestamps.containsKey(entry.getKey()));
+        sessions.expire(System.currentTimeMillis());
+    }
+    
+    /**
+     * Gets the number of sessions dropped because max-pvp-sessions was reached
+     */
+    public long getEvictedSessionCount() {
+        return sessions.getEvictedCount();
     }
     
     /**
@@ -139,8 +137,8 @@ public class PvPDetectionSystem {
      * Shuts down the PvP detection system
      */
     public void shutdown() {
-        pvpTimestamps.clear();
-        lastAttacker.clear();
+        sessions.clear();
+        combatGraph.clear();
         plugin.getLogger().info("PvP detection system shutdown");
     }
 }
\ No newline at end of file
@@ -0,0 +1,265 @@
+package io.github.chiefboyardee.bedrockcombat.pvp;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Stores active PvP sessions, indexed three ways:
+ * by player, by attacker (reverse of last attacker) and by deadline.
+ * Sessions are kept in a doubly-linked list ordered by deadline, so expiry only
+ * looks at the head and the active count is a plain counter.
+ * Not thread-safe, use from the main server thread only.
+ */
+public class PvPSessionStore {
+    
+    private final Map<UUID, Session> sessions = new HashMap<>();
+    private final Consumer<UUID> removalListener;
+    private int maxSessions;
+    private int activeCount;
+    private long evictedCount;
+    
+    // Deadline-ordered list, head expires first
+    private Session head;
+    private Session tail;
+    
+    /**
+     * Creates a store holding at most the given number of sessions (at least two)
+     */
+    public PvPSessionStore(int maxSessions) {
+        this(maxSessions, playerId -> { });
+    }
+    
+    /**
+     * Creates a store that reports every session that expired or was removed. Sessions
+     * evicted by the cap are not reported: the cap only bounds this store's bookkeeping,
+     * so whatever the listener cleans up for a player stays until it expires on its own.
+     */
+    public PvPSessionStore(int maxSessions, Consumer<UUID> removalListener) {
+        this.maxSessions = Math.max(2, maxSessions);
+        this.removalListener = removalListener;
+    }
+    
+    /**
+     * Records a hit, opening or refreshing both players' sessions until the deadline
+     */
+    public void record(UUID attackerId, UUID victimId, long deadline) {
+        Session attacker = touch(attackerId, deadline);
+        Session victim = touch(victimId, deadline);
+        if (sessions.get(attackerId) != attacker) {
+            // The cap was reached and the attacker's session was the one evicted
+            return;
+        }
+        
+        if (victim.lastAttacker != null && !victim.lastAttacker.equals(attackerId)) {
+            Session previous = sessions.get(victim.lastAttacker);
+            if (previous != null && previous.victims != null) {
+                previous.victims.remove(victimId);
+            }
+        }
+        victim.lastAttacker = attackerId;
+        attacker.victims().add(victimId);
+    }
+    
+    /**
+     * Checks if a player has a session that has not yet expired
+     */
+    public boolean isActive(UUID playerId, long now) {
+        Session session = sessions.get(playerId);
+        return session != null && session.deadline > now;
+    }
+    
+    /**
+     * Gets the deadline of a player's session, or -1 if there is none
+     */
+    public long getDeadline(UUID playerId) {
+        Session session = sessions.get(playerId);
+        return session != null ? session.deadline : -1L;
+    }
+    
+    /**
+     * Gets the last attacker of a player, or null if unknown
+     */
+    public UUID getLastAttacker(UUID playerId) {
+        Session session = sessions.get(playerId);
+        return session != null ? session.lastAttacker : null;
+    }
+    
+    /**
+     * Removes a player's session, touching only the players they fought
+     */
+    public boolean remove(UUID playerId) {
+        if (!drop(playerId)) {
+            return false;
+        }
+        removalListener.accept(playerId);
+        return true;
+    }
+    
+    /**
+     * Removes sessions whose deadline has passed
+     * @return the number of sessions removed
+     */
+    public int expire(long now) {
+        int removed = 0;
+        while (head != null && head.deadline <= now) {
+            remove(head.playerId);
+            removed++;
+        }
+        return removed;
+    }
+    
+    /**
+     * Drops a player's session from the store without reporting it to the removal listener
+     */
+    private boolean drop(UUID playerId) {
+        Session session = sessions.remove(playerId);
+        if (session == null) {
+            return false;
+        }
+        unlink(session);
+        activeCount--;
+        
+        if (session.lastAttacker != null) {
+            Session attacker = sessions.get(session.lastAttacker);
+            if (attacker != null && attacker.victims != null) {
+                attacker.victims.remove(playerId);
+            }
+        }
+        if (session.victims != null) {
+            for (UUID victimId : session.victims) {
+                Session victim = sessions.get(victimId);
+                if (victim != null && playerId.equals(victim.lastAttacker)) {
+                    victim.lastAttacker = null;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Gets the number of sessions currently tracked
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+    
+    /**
+     * Gets the number of sessions dropped because the cap was reached
+     */
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+    
+    /**
+     * Changes the maximum number of sessions, evicting the closest to expiry if needed
+     */
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = Math.max(2, maxSessions);
+        while (activeCount > this.maxSessions) {
+            evictHead();
+        }
+    }
+    
+    /**
+     * Removes all sessions
+     */
+    public void clear() {
+        sessions.clear();
+        head = null;
+        tail = null;
+        activeCount = 0;
+    }
+    
+    private Session touch(UUID playerId, long deadline) {
+        Session session = sessions.get(playerId);
+        if (session == null) {
+            if (activeCount >= maxSessions) {
+                evictHead();
+            }
+            session = new Session(playerId);
+            sessions.put(playerId, session);
+            activeCount++;
+        } else {
+            unlink(session);
+        }
+        session.deadline = deadline;
+        insertByDeadline(session);
+        return session;
+    }
+    
+    /**
+     * Evicts the session closest to expiry; the player's combat partners are not reported,
+     * so their recent-opponent links live on until their own deadline
+     */
+    private void evictHead() {
+        if (head != null) {
+            drop(head.playerId);
+            evictedCount++;
+        }
+    }
+    
+    /**
+     * Inserts from the tail; deadlines almost always grow, so this is O(1) in practice
+     */
+    private void insertByDeadline(Session session) {
+        Session after = tail;
+        while (after != null && after.deadline > session.deadline) {
+            after = after.prev;
+        }
+        session.prev = after;
+        if (after == null) {
+            session.next = head;
+            head = session;
+        } else {
+            session.next = after.next;
+            after.next = session;
+        }
+        if (session.next != null) {
+            session.next.prev = session;
+        } else {
+            tail = session;
+        }
+    }
+    
+    private void unlink(Session session) {
+        if (session.prev != null) {
+            session.prev.next = session.next;
+        } else {
+            head = session.next;
+        }
+        if (session.next != null) {
+            session.next.prev = session.prev;
+        } else {
+            tail = session.prev;
+        }
+        session.prev = null;
+        session.next = null;
+    }
+    
+    /**
+     * PvP session of one player
+     */
+    private static final class Session {
+        final UUID playerId;
+        long deadline;
+        UUID lastAttacker;
+        Set<UUID> victims;
+        Session prev;
+        Session next;
+        
+        Session(UUID playerId) {
+            this.playerId = playerId;
+        }
+        
+        Set<UUID> victims() {
+            if (victims == null) {
+                victims = new HashSet<>(4);
+            }
+            return victims;
+        }
+    }
+}
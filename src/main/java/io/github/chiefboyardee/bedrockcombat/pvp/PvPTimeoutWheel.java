@@ -0,0 +1,185 @@
+package io.github.chiefboyardee.bedrockcombat.pvp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel for PvP timeouts, advanced by a single repeating tick task.
+ * Timeouts are intrusive: callers' own per-player objects extend {@link Entry},
+ * so scheduling needs no map lookup. Refreshing a timeout only overwrites its
+ * deadline; entries are moved to the right slot lazily when their old slot comes
+ * around. Not thread-safe, use from the main server thread only.
+ */
+public class PvPTimeoutWheel<E extends PvPTimeoutWheel.Entry> {
+    
+    private final Entry[] slots;
+    private final int mask;
+    private int size;
+    private long currentTick;
+    
+    /**
+     * Creates a wheel with the given number of slots (rounded up to a power of two)
+     */
+    public PvPTimeoutWheel(int slotCount) {
+        int slotsSize = Integer.highestOneBit(Math.max(2, slotCount - 1)) << 1;
+        this.slots = new Entry[slotsSize];
+        this.mask = slotsSize - 1;
+    }
+    
+    /**
+     * Schedules or refreshes a timeout to expire after the given delay
+     */
+    public void schedule(E entry, long delayTicks) {
+        long deadline = currentTick + Math.max(1L, delayTicks);
+        if (entry.scheduled) {
+            if (deadline < entry.deadline) {
+                // Shortened timeout: its current slot may come around too late
+                unlink(entry);
+                link(entry, (int) (deadline & mask));
+            }
+            // Refresh: the entry is re-bucketed when its current slot is reached
+            entry.deadline = deadline;
+            return;
+        }
+        entry.scheduled = true;
+        entry.deadline = deadline;
+        size++;
+        link(entry, (int) (deadline & mask));
+    }
+    
+    /**
+     * Cancels a pending timeout
+     * @return true if a timeout was pending
+     */
+    public boolean cancel(E entry) {
+        if (!entry.scheduled) {
+            return false;
+        }
+        unlink(entry);
+        entry.scheduled = false;
+        size--;
+        return true;
+    }
+    
+    /**
+     * Advances the wheel by one tick and passes every timeout due on it to the handler.
+     * Handlers may freely schedule or cancel timeouts.
+     */
+    @SuppressWarnings("unchecked")
+    public void tick(Consumer<? super E> onExpire) {
+        long tick = ++currentTick;
+        int slot = (int) (tick & mask);
+        List<E> expired = null;
+        
+        Entry entry = slots[slot];
+        while (entry != null) {
+            Entry next = entry.next;
+            if (entry.deadline <= tick) {
+                unlink(entry);
+                entry.scheduled = false;
+                size--;
+                if (expired == null) {
+                    expired = new ArrayList<>();
+                }
+                expired.add((E) entry);
+            } else {
+                int target = (int) (entry.deadline & mask);
+                if (target != slot) {
+                    unlink(entry);
+                    link(entry, target);
+                }
+            }
+            entry = next;
+        }
+        
+        if (expired != null) {
+            for (E expiredEntry : expired) {
+                onExpire.accept(expiredEntry);
+            }
+        }
+    }
+    
+    /**
+     * Gets the number of ticks the wheel has advanced
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+    
+    /**
+     * Gets the number of pending timeouts
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Removes all pending timeouts
+     */
+    public void clear() {
+        for (Entry head : slots) {
+            for (Entry entry = head; entry != null; ) {
+                Entry next = entry.next;
+                entry.scheduled = false;
+                entry.prev = null;
+                entry.next = null;
+                entry = next;
+            }
+        }
+        Arrays.fill(slots, null);
+        size = 0;
+    }
+    
+    private void link(Entry entry, int slot) {
+        Entry head = slots[slot];
+        entry.slot = slot;
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        slots[slot] = entry;
+    }
+    
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            slots[entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+    
+    /**
+     * Timeout slot of one player, linked into the list of its wheel slot while scheduled.
+     * An entry belongs to at most one wheel.
+     */
+    public abstract static class Entry {
+        // Maintained by the wheel only
+        long deadline;
+        boolean scheduled;
+        int slot;
+        Entry prev;
+        Entry next;
+        
+        /**
+         * Checks if this entry's timeout is pending
+         */
+        public boolean isScheduled() {
+            return scheduled;
+        }
+        
+        /**
+         * Gets the tick at which this entry's timeout expires, or -1 if none is pending
+         */
+        public long getDeadline() {
+            return scheduled ? deadline : -1L;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.chiefboyardee.bedrockcombat.scheduler;
+
+/**
+ * Delayed or repeating work registered with a WorkScheduler.
+ * A repeating task is queued at most once: if its previous run is still
+ * waiting for budget when it comes due again, that period is skipped.
+ */
+public final class ScheduledWork {
+    
+    final WorkClass workClass;
+    final Runnable task;
+    final long period;
+    
+    // Maintained by the scheduler only
+    long dueTick;
+    long sequence;
+    boolean queued;
+    boolean cancelled;
+    
+    ScheduledWork(WorkClass workClass, Runnable task, long period) {
+        this.workClass = workClass;
+        this.task = task;
+        this.period = period;
+    }
+    
+    /**
+     * Stops the work from running again; a run already queued is skipped
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+    
+    public boolean isCancelled() {
+        return cancelled;
+    }
+    
+    public WorkClass getWorkClass() {
+        return workClass;
+    }
+    
+    /**
+     * Gets the number of ticks between runs, or 0 for one-shot work
+     */
+    public long getPeriod() {
+        return period;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package io.github.chiefboyardee.bedrockcombat.scheduler;
+
+/**
+ * Priority classes of main-thread work, in the order they run within a tick
+ */
+public enum WorkClass {
+    
+    /** Combat bookkeeping (PvP timeouts, combat mode writes, joins); always runs in full */
+    CRITICAL("critical", 0),
+    
+    /** Action bars and other player-facing display refreshes */
+    HUD("hud", 0),
+    
+    /** Statistics and other bookkeeping nobody waits for; dropped once the backlog is full */
+    ANALYTICS("analytics", 10_000),
+    
+    /** Expiry sweeps and cleanup */
+    MAINTENANCE("maintenance", 0);
+    
+    private final String displayName;
+    private final int maxBacklog;
+    
+    WorkClass(String displayName, int maxBacklog) {
+        this.displayName = displayName;
+        this.maxBacklog = maxBacklog;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    /**
+     * Gets the number of queued tasks beyond which new work of this class is dropped, or 0 for no limit
+     */
+    public int getMaxBacklog() {
+        return maxBacklog;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,296 @@
+package io.github.chiefboyardee.bedrockcombat.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Plugin-wide main-thread work scheduler, driven by a single repeating server task.
+ * Each tick runs all critical work, then HUD, analytics and maintenance work in that
+ * order until the tick budget is used up; whatever is left carries over to the next
+ * tick, ahead of newer work of the same class. Critical time counts against the budget,
+ * so the other classes yield to combat bookkeeping. A class that was skipped for
+ * MAX_SKIPPED_TICKS ticks in a row runs one task regardless, so it cannot starve while
+ * the server stays over budget. Work of a class with a backlog limit is dropped while
+ * its queue is full.
+ * Not thread-safe, use from the main server thread only; other threads hand work
+ * over through submitAsync.
+ */
+public class WorkScheduler {
+    
+    private static final WorkClass[] CLASSES = WorkClass.values();
+    
+    /** Smallest accepted tick budget; lower or invalid values are raised to it */
+    public static final double MIN_BUDGET_MILLIS = 0.1;
+    
+    /** Ticks a class with queued work may be skipped before it gets one task over budget */
+    public static final int MAX_SKIPPED_TICKS = 20;
+    
+    private final Logger logger;
+    private final ClassStats[] stats = new ClassStats[CLASSES.length];
+    private final PriorityQueue<ScheduledWork> timers = new PriorityQueue<>(
+        Comparator.comparingLong((ScheduledWork work) -> work.dueTick).thenComparingLong(work -> work.sequence));
+    
+    // Work handed over by other threads, queued at the start of the next tick
+    private final ConcurrentLinkedQueue<ScheduledWork> inbox = new ConcurrentLinkedQueue<>();
+    
+    private long budgetNanos;
+    private long currentTick;
+    private long ticks;
+    private long nextSequence;
+    
+    public WorkScheduler(Logger logger, double budgetMillis) {
+        this.logger = logger;
+        for (WorkClass workClass : CLASSES) {
+            stats[workClass.ordinal()] = new ClassStats();
+        }
+        setBudgetMillis(budgetMillis);
+    }
+    
+    /**
+     * Sets the time per tick after which no further non-critical work is started,
+     * at least MIN_BUDGET_MILLIS
+     */
+    public void setBudgetMillis(double budgetMillis) {
+        if (!(budgetMillis >= MIN_BUDGET_MILLIS)) {
+            logger.warning("Tick budget " + budgetMillis + "ms is too small, using " + MIN_BUDGET_MILLIS + "ms");
+            budgetMillis = MIN_BUDGET_MILLIS;
+        }
+        this.budgetNanos = (long) (budgetMillis * 1_000_000L);
+    }
+    
+    /**
+     * Queues work to run as soon as the budget allows; work dropped because
+     * its class backlog is full comes back cancelled
+     */
+    public ScheduledWork submit(WorkClass workClass, Runnable task) {
+        ScheduledWork work = new ScheduledWork(workClass, task, 0L);
+        enqueue(work);
+        return work;
+    }
+    
+    /**
+     * Queues work from any thread, e.g. a database callback; it joins its class
+     * queue at the start of the next tick and then runs like submitted work
+     */
+    public void submitAsync(WorkClass workClass, Runnable task) {
+        inbox.add(new ScheduledWork(workClass, task, 0L));
+    }
+    
+    /**
+     * Queues work once the given number of ticks has passed
+     */
+    public ScheduledWork submitLater(WorkClass workClass, Runnable task, long delayTicks) {
+        ScheduledWork work = new ScheduledWork(workClass, task, 0L);
+        schedule(work, delayTicks);
+        return work;
+    }
+    
+    /**
+     * Queues work every period ticks, starting after the given delay
+     */
+    public ScheduledWork scheduleRepeating(WorkClass workClass, Runnable task, long delayTicks, long periodTicks) {
+        ScheduledWork work = new ScheduledWork(workClass, task, Math.max(1L, periodTicks));
+        schedule(work, delayTicks);
+        return work;
+    }
+    
+    /**
+     * Runs one tick: queues the work that came due, runs all critical work and
+     * then the other classes by priority while the budget lasts; a class skipped for
+     * MAX_SKIPPED_TICKS ticks runs one task even over budget
+     */
+    public void runTick() {
+        currentTick++;
+        ticks++;
+        ScheduledWork handedOver;
+        while ((handedOver = inbox.poll()) != null) {
+            enqueue(handedOver);
+        }
+        promoteDueWork();
+        
+        long deadline = System.nanoTime() + budgetNanos;
+        for (WorkClass workClass : CLASSES) {
+            ClassStats classStats = stats[workClass.ordinal()];
+            ArrayDeque<ScheduledWork> queue = classStats.queue;
+            if (queue.isEmpty()) {
+                continue;
+            }
+            boolean critical = workClass == WorkClass.CRITICAL;
+            long startNanos = System.nanoTime();
+            long now = startNanos;
+            boolean ran = false;
+            boolean starved = classStats.skippedTicks >= MAX_SKIPPED_TICKS;
+            while (!queue.isEmpty() && (critical || now < deadline || (starved && !ran))) {
+                ScheduledWork work = queue.poll();
+                work.queued = false;
+                if (work.cancelled) {
+                    continue;
+                }
+                run(work);
+                ran = true;
+                classStats.runs++;
+                now = System.nanoTime();
+            }
+            classStats.record(now - startNanos);
+            classStats.skippedTicks = ran || queue.isEmpty() ? 0 : classStats.skippedTicks + 1;
+            if (!queue.isEmpty()) {
+                classStats.carriedOverTicks++;
+            }
+        }
+    }
+    
+    /**
+     * Cancels and forgets all queued and scheduled work
+     */
+    public void clear() {
+        inbox.clear();
+        for (ScheduledWork work : timers) {
+            work.cancelled = true;
+        }
+        timers.clear();
+        for (ClassStats classStats : stats) {
+            for (ScheduledWork work : classStats.queue) {
+                work.cancelled = true;
+                work.queued = false;
+            }
+            classStats.queue.clear();
+        }
+    }
+    
+    public double getBudgetMillis() {
+        return budgetNanos / 1_000_000.0;
+    }
+    
+    /**
+     * Gets the number of ticks run so far
+     */
+    public long getTickCount() {
+        return ticks;
+    }
+    
+    /**
+     * Gets the number of tasks of a class waiting for budget
+     */
+    public int getBacklog(WorkClass workClass) {
+        return stats[workClass.ordinal()].queue.size();
+    }
+    
+    /**
+     * Gets the number of delayed and repeating tasks not yet due
+     */
+    public int getScheduledCount() {
+        return timers.size();
+    }
+    
+    /**
+     * Gets the number of tasks of a class run so far
+     */
+    public long getRunCount(WorkClass workClass) {
+        return stats[workClass.ordinal()].runs;
+    }
+    
+    /**
+     * Gets the total time spent on a class, in nanoseconds
+     */
+    public long getUsedNanos(WorkClass workClass) {
+        return stats[workClass.ordinal()].usedNanos;
+    }
+    
+    /**
+     * Gets the longest time a class took in a single tick, in nanoseconds
+     */
+    public long getMaxTickNanos(WorkClass workClass) {
+        return stats[workClass.ordinal()].maxTickNanos;
+    }
+    
+    /**
+     * Gets the number of tasks of a class dropped because its backlog was full
+     */
+    public long getDroppedCount(WorkClass workClass) {
+        return stats[workClass.ordinal()].dropped;
+    }
+    
+    /**
+     * Gets the number of ticks that ended with work of a class left over
+     */
+    public long getCarriedOverTicks(WorkClass workClass) {
+        return stats[workClass.ordinal()].carriedOverTicks;
+    }
+    
+    /**
+     * Gets the average share of the tick budget a class used, 1.0 being the whole budget
+     */
+    public double getBudgetShare(WorkClass workClass) {
+        if (ticks == 0 || budgetNanos == 0) {
+            return 0.0;
+        }
+        return stats[workClass.ordinal()].usedNanos / ((double) ticks * budgetNanos);
+    }
+    
+    private void schedule(ScheduledWork work, long delayTicks) {
+        work.dueTick = currentTick + Math.max(1L, delayTicks);
+        work.sequence = nextSequence++;
+        timers.add(work);
+    }
+    
+    private void promoteDueWork() {
+        ScheduledWork work;
+        while ((work = timers.peek()) != null && work.dueTick <= currentTick) {
+            timers.poll();
+            if (work.cancelled) {
+                continue;
+            }
+            // A repeating task still waiting from its last period is not queued twice
+            if (!work.queued) {
+                enqueue(work);
+            }
+            if (work.period > 0) {
+                work.dueTick += work.period;
+                work.sequence = nextSequence++;
+                timers.add(work);
+            }
+        }
+    }
+    
+    private void enqueue(ScheduledWork work) {
+        ClassStats classStats = stats[work.workClass.ordinal()];
+        int maxBacklog = work.workClass.getMaxBacklog();
+        if (maxBacklog > 0 && classStats.queue.size() >= maxBacklog) {
+            // A repeating task only loses this period
+            classStats.dropped++;
+            if (work.period == 0) {
+                work.cancelled = true;
+            }
+            return;
+        }
+        work.queued = true;
+        classStats.queue.add(work);
+    }
+    
+    private void run(ScheduledWork work) {
+        try {
+            work.task.run();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Scheduled " + work.workClass.getDisplayName() + " task failed", e);
+        }
+    }
+    
+    private static final class ClassStats {
+        final ArrayDeque<ScheduledWork> queue = new ArrayDeque<>();
+        long runs;
+        long dropped;
+        long usedNanos;
+        long maxTickNanos;
+        long carriedOverTicks;
+        int skippedTicks;
+        
+        void record(long nanos) {
+            usedNanos += nanos;
+            maxTickNanos = Math.max(maxTickNanos, nanos);
+        }
+    }
+}
\ No newline at end of file
@@ -2,63 +2,66 @@ package io.github.chiefboyardee.bedrockcombat.ui;
 
 import io.github.chiefboyardee.bedrockcombat.BedrockCombatPlugin;
 import io.github.chiefboyardee.bedrockcombat.config.ConfigManager;
-import org.bukkit.Bukkit;
+import io.github.chiefboyardee.bedrockcombat.config.ConfigSnapshot;
+import io.github.chiefboyardee.bedrockcombat.engine.CombatEngine;
+import io.github.chiefboyardee.bedrockcombat.engine.PlayerCombatState;
+import io.github.chiefboyardee.bedrockcombat.performance.Operation;
+import io.github.chiefboyardee.bedrockcombat.scheduler.ScheduledWork;
+import io.github.chiefboyardee.bedrockcombat.scheduler.WorkClass;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
 
-import java.lang.reflect.Method;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Manages action bar notifications for combat status display
- * Provides real-time feedback on combat mode, PvP status, and transitions
+ * Provides real-time feedback on combat mode, PvP status, and transitions.
+ * Refreshes are staggered: every player sits in one of update-interval buckets
+ * by a stable hash of their UUID, and each tick refreshes one bucket, so the
+ * cost is spread evenly instead of landing once per interval. Buckets are member
+ * lists kept on join and quit, so a tick only visits its own bucket. Players whose
+ * state changed are refreshed on the next tick, ahead of their bucket, and so are
+ * players in PvP whose countdown (read from their stored deadline) reaches a new second.
  */
 public class ActionBarManager {
     
+    /** Ticks after which an unchanged message is sent again, before the client fades it out */
+    private static final long KEEP_ALIVE_TICKS = 40L;
+    
     private final BedrockCombatPlugin plugin;
     private final ConfigManager configManager;
     
-    // Action bar update task
-    private BukkitTask updateTask;
+    // Action bar refresh, run every tick as HUD work by the plugin's work scheduler
+    private ScheduledWork updateTask;
+    private int bucketCount = 1;
+    private long keepAliveTicks = KEEP_ALIVE_TICKS;
+    private long refreshTick;
+    
+    // Messages of the current configuration, and how many sends they saved
+    private ActionBarMessages messages;
+    private long sentMessages;
+    private long skippedMessages;
+    
+    // Players whose state changed since the last refresh
+    private final ArrayDeque<PlayerCombatState> changed = new ArrayDeque<>();
     
-    // Player-specific action bar states
-    private final Map<UUID, ActionBarState> playerStates = new ConcurrentHashMap<>();
+    // Online players by refresh bucket, kept dense with swap-remove (slot stored on the state)
+    private final List<List<PlayerCombatState>> buckets = new ArrayList<>();
     
-    // Reflection method for sending action bar (for compatibility)
-    private Method sendActionBarMethod;
-    private boolean actionBarSupported = false;
+    // Action bar transport, chosen once for the running server software
+    private final ActionBarSender sender;
     
     public ActionBarManager(BedrockCombatPlugin plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
-        initializeActionBarSupport();
-    }
-    
-    /**
-     * Initialize action bar support using reflection for compatibility
-     */
-    private void initializeActionBarSupport() {
-        try {
-            // Try to find the sendActionBar method
-            sendActionBarMethod = Player.class.getMethod("sendActionBar", String.class);
-            actionBarSupported = true;
-            plugin.getLogger().info("Action bar support detected and enabled");
-        } catch (NoSuchMethodException e) {
-            // Fallback: try with net.md_5.bungee.api.ChatMessageType
-            try {
-                Class<?> chatMessageType = Class.forName("net.md_5.bungee.api.ChatMessageType");
-                Class<?> textComponent = Class.forName("net.md_5.bungee.api.chat.TextComponent");
-                sendActionBarMethod = Player.class.getMethod("spigot");
-                actionBarSupported = true;
-                plugin.getLogger().info("Action bar support detected via Spigot API");
-            } catch (Exception ex) {
-                plugin.getLogger().warning("Action bar not supported on this server version - using chat messages");
-                actionBarSupported = false;
-            }
+        this.sender = ActionBarSender.select(plugin.getLogger());
+        
+        if (sender.isSupported()) {
+            plugin.getLogger().info("Action bar support detected via " + sender.getName() + " API");
+        } else {
+            plugin.getLogger().warning("Action bar not supported on this server version - action bar disabled");
         }
     }
     
@@ -71,13 +74,17 @@ public class ActionBarManager {
         }
         
         int updateInterval = configManager.getActionBarUpdateInterval();
+        bucketCount = Math.max(1, updateInterval);
+        // A player is only refreshed once per interval, so a shorter keep-alive would resend every time
+        keepAliveTicks = Math.max(KEEP_ALIVE_TICKS, bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (PlayerCombatState state : plugin.getCombatEngine().getStates()) {
+            addPlayer(state);
+        }
         
-        updateTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                updateAllActionBars();
-            }
-        }.runTaskTimer(plugin, 0L, updateInterval);
+        updateTask = plugin.getWorkScheduler().scheduleRepeating(WorkClass.HUD, this::refreshActionBars, 1L, 1L);
         
         plugin.getLogger().info("Action bar system started with " + updateInterval + " tick interval");
     }
@@ -86,10 +93,23 @@ public class ActionBarManager {
      * Stop the action bar update system
      */
     public void stop() {
-        if (updateTask != null && !updateTask.isCancelled()) {
+        if (updateTask != null) {
             updateTask.cancel();
+            updateTask = null;
+        }
+        for (PlayerCombatState state : changed) {
+            state.setHudQueued(false);
+        }
+        changed.clear();
+        for (List<PlayerCombatState> bucket : buckets) {
+            for (PlayerCombatState state : bucket) {
+                state.setHudSlot(-1);
+            }
+        }
+        buckets.clear();
+        for (PlayerCombatState state : plugin.getCombatEngine().getStates()) {
+            state.resetHud();
         }
-        playerStates.clear();
         plugin.getLogger().info("Action bar system stopped");
     }
     
@@ -101,104 +121,170 @@ public class ActionBarManager {
     }
     
     /**
-     * Update action bars for all online players
+     * Puts a player who joined into their refresh bucket
+     */
+    public void addPlayer(PlayerCombatState state) {
+        if (buckets.isEmpty() || state.getHudSlot() >= 0) {
+            return;
+        }
+        List<PlayerCombatState> bucket = buckets.get(bucketOf(state));
+        state.setHudSlot(bucket.size());
+        bucket.add(state);
+    }
+    
+    /**
+     * Takes a player who left out of their refresh bucket
+     */
+    public void removePlayer(PlayerCombatState state) {
+        int slot = state.getHudSlot();
+        if (slot < 0) {
+            return;
+        }
+        List<PlayerCombatState> bucket = buckets.get(bucketOf(state));
+        PlayerCombatState last = bucket.remove(bucket.size() - 1);
+        if (last != state) {
+            bucket.set(slot, last);
+            last.setHudSlot(slot);
+        }
+        state.setHudSlot(-1);
+    }
+    
+    /**
+     * Runs once per tick: refreshes players whose state changed, then this tick's bucket
+     */
+    private void refreshActionBars() {
+        long startNanos = System.nanoTime();
+        PlayerCombatState state;
+        while ((state = changed.poll()) != null) {
+            state.setHudQueued(false);
+            if (!state.isRemoved()) {
+                updatePlayerActionBar(state);
+            }
+        }
+        
+        // This tick's bucket, then every PvP countdown whose displayed second just changed
+        List<PlayerCombatState> bucket = buckets.get((int) (refreshTick++ % bucketCount));
+        for (int i = 0; i < bucket.size(); i++) {
+            PlayerCombatState member = bucket.get(i);
+            if (member.isRemoved()) {
+                // Replaced without a quit (e.g. a duplicate login); its slot now holds the last member
+                removePlayer(member);
+                i--;
+            } else {
+                updatePlayerActionBar(member);
+            }
+        }
+        CombatEngine engine = plugin.getCombatEngine();
+        ActionBarMessages table = getMessages(configManager.getSnapshot());
+        List<PlayerCombatState> fighters = engine.getStatesInPvP();
+        for (int i = 0; i < fighters.size(); i++) {
+            PlayerCombatState fighter = fighters.get(i);
+            if (table.isCountdownStale(fighter.getHudCode(), getSecondsLeft(engine, fighter))) {
+                updatePlayerActionBar(fighter);
+            }
+        }
+        plugin.getPerformanceMonitor().recordTime(Operation.ACTION_BAR_UPDATE, startNanos);
+    }
+    
+    /**
+     * Gets the whole seconds left until a player's PvP timeout, rounded up, from the stored deadline
+     */
+    private static int getSecondsLeft(CombatEngine engine, PlayerCombatState state) {
+        long deadline = state.getDeadline();
+        if (deadline < 0) {
+            return 0;
+        }
+        long ticksLeft = deadline - engine.getCurrentTick();
+        return ticksLeft > 0 ? (int) Math.min(Integer.MAX_VALUE, (ticksLeft + 19) / 20) : 0;
+    }
+    
+    /**
+     * Gets the refresh bucket of a player, the same for their whole session
      */
-    private void updateAllActionBars() {
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            updatePlayerActionBar(player);
+    private int bucketOf(PlayerCombatState state) {
+        return Math.floorMod(state.getPlayerId().hashCode(), bucketCount);
+    }
+    
+    /**
+     * Refreshes a player's action bar on the next tick, ahead of their bucket
+     */
+    public void requestUpdate(PlayerCombatState state) {
+        if (updateTask == null || state.isHudQueued()) {
+            return;
         }
+        state.setHudQueued(true);
+        changed.add(state);
+    }
+    
+    /**
+     * Gets the number of players waiting for an out-of-turn refresh
+     */
+    public int getPendingUpdateCount() {
+        return changed.size();
     }
     
     /**
      * Update action bar for a specific player
      */
     public void updatePlayerActionBar(Player player) {
-        if (!configManager.isActionBarEnabled()) {
+        PlayerCombatState state = plugin.getCombatEngine().getState(player.getUniqueId());
+        if (state != null) {
+            updatePlayerActionBar(state);
+        }
+    }
+    
+    /**
+     * Update action bar from a player's combat state.
+     * Sends only when the displayed state (including the PvP seconds left) changed,
+     * or to keep an unchanged message from fading on the client.
+     */
+    public void updatePlayerActionBar(PlayerCombatState state) {
+        ConfigSnapshot config = configManager.getSnapshot();
+        if (!config.isActionBarEnabled() || state.isJoinPending()) {
             return;
         }
+        ActionBarMessages table = getMessages(config);
         
-        UUID playerId = player.getUniqueId();
-        ActionBarState state = getOrCreatePlayerState(playerId);
+        // Determine current state; the mode transition shows once after the shown platform flipped
+        // (not after a reset, when nothing is known about what was shown)
+        boolean bedrock = state.isBedrockPlatform();
+        int lastCode = state.getHudCode();
+        boolean transition = lastCode >= 0 && ActionBarMessages.isBedrock(lastCode) != bedrock;
+        int code = table.code(bedrock, state.isInPvP(), transition, getSecondsLeft(plugin.getCombatEngine(), state));
         
-        // Determine current combat mode
-        String combatMode = plugin.getIntegrationManager().isBedrockPlayer(player) ? "Bedrock" : "Java";
-        boolean inPvP = plugin.getPvPDetectionSystem().isInPvP(player);
-        
-        // Build action bar message
-        String message = buildActionBarMessage(combatMode, inPvP, state);
+        if (code == lastCode && refreshTick - state.getHudSentTick() < keepAliveTicks) {
+            skippedMessages++;
+            return;
+        }
         
         // Send action bar
-        sendActionBar(player, message);
+        sendActionBar((Player) state.getHandle(), table.get(code));
+        sentMessages++;
         
         // Update state
-        state.lastCombatMode = combatMode;
-        state.lastPvPStatus = inPvP;
+        state.setHud(code, refreshTick);
     }
     
     /**
-     * Build the action bar message based on current state
+     * Gets the rendered messages of the current configuration, rendering them after a reload
      */
-    private String buildActionBarMessage(String combatMode, boolean inPvP, ActionBarState state) {
-        StringBuilder message = new StringBuilder();
-        
-        // Combat mode indicator
-        if (configManager.showCombatModeInActionBar()) {
-            String modeColor = "Bedrock".equals(combatMode) ? "&a" : "&b";
-            message.append("&7Combat: ").append(modeColor).append(combatMode).append(" ");
-        }
-        
-        // PvP status indicator
-        if (configManager.showPvPStatusInActionBar() && inPvP) {
-            message.append("&c⚔ PvP Mode &c");
-            
-            // Add PvP timeout countdown if available
-            int timeoutSeconds = plugin.getConfigManager().getPvpTimeout();
-            if (timeoutSeconds > 0) {
-                message.append(" &e(").append(timeoutSeconds).append("s)");
+    private ActionBarMessages getMessages(ConfigSnapshot config) {
+        if (messages == null || !messages.isFor(config)) {
+            messages = ActionBarMessages.of(config);
+            // Codes now stand for new texts, so everyone gets the new one on their next refresh
+            for (PlayerCombatState state : plugin.getCombatEngine().getStates()) {
+                state.resetHud();
             }
         }
-        
-        // Mode transition indicator
-        if (!combatMode.equals(state.lastCombatMode)) {
-            message.append(" &e→ ").append(combatMode);
-        }
-        
-        // Clean up and apply color codes
-        String result = message.toString().trim();
-        if (result.isEmpty()) {
-            result = "&7Combat Ready";
-        }
-        
-        return ChatColor.translateAlternateColorCodes('&', result);
+        return messages;
     }
     
     /**
      * Send action bar message to player
      */
     private void sendActionBar(Player player, String message) {
-        if (!actionBarSupported) {
-            // Fallback to chat message (less intrusive)
-            return;
-        }
-        
         try {
-            if (sendActionBarMethod.getName().equals("sendActionBar")) {
-                // Direct method call
-                sendActionBarMethod.invoke(player, message);
-            } else {
-                // Spigot API method
-                Object spigot = sendActionBarMethod.invoke(player);
-                Method sendMessage = spigot.getClass().getMethod("sendMessage", 
-                    Class.forName("net.md_5.bungee.api.ChatMessageType"),
-                    Class.forName("net.md_5.bungee.api.chat.BaseComponent"));
-                
-                Object chatMessageType = Class.forName("net.md_5.bungee.api.ChatMessageType")
-                    .getField("ACTION_BAR").get(null);
-                Object textComponent = Class.forName("net.md_5.bungee.api.chat.TextComponent")
-                    .getConstructor(String.class).newInstance(message);
-                
-                sendMessage.invoke(spigot, chatMessageType, textComponent);
-            }
+            sender.send(player, message);
         } catch (Exception e) {
             // Silently fail - action bar is not critical
             plugin.getLogger().fine("Failed to send action bar: " + e.getMessage());
@@ -215,9 +301,10 @@ public class ActionBarManager {
         
         String message = ChatColor.translateAlternateColorCodes('&', "&e⚡ Combat Mode: &f" + newMode);
         sendActionBar(player, message);
+        forgetShownState(player);
         
         // Schedule immediate update
-        Bukkit.getScheduler().runTaskLater(plugin, () -> updatePlayerActionBar(player), 40L); // 2 seconds
+        plugin.getWorkScheduler().submitLater(WorkClass.HUD, () -> updatePlayerActionBar(player), 40L); // 2 seconds
     }
     
     /**
@@ -230,9 +317,10 @@ public class ActionBarManager {
         
         String message = ChatColor.translateAlternateColorCodes('&', "&c⚔ Entering PvP Mode!");
         sendActionBar(player, message);
+        forgetShownState(player);
         
         // Schedule immediate update
-        Bukkit.getScheduler().runTaskLater(plugin, () -> updatePlayerActionBar(player), 20L); // 1 second
+        plugin.getWorkScheduler().submitLater(WorkClass.HUD, () -> updatePlayerActionBar(player), 20L); // 1 second
     }
     
     /**
@@ -245,56 +333,71 @@ public class ActionBarManager {
         
         String message = ChatColor.translateAlternateColorCodes('&', "&a✓ PvP Mode Ended");
         sendActionBar(player, message);
+        forgetShownState(player);
         
         // Schedule immediate update
-        Bukkit.getScheduler().runTaskLater(plugin, () -> updatePlayerActionBar(player), 20L); // 1 second
+        plugin.getWorkScheduler().submitLater(WorkClass.HUD, () -> updatePlayerActionBar(player), 20L); // 1 second
     }
     
     /**
-     * Removes a player from action bar updates
+     * Makes the next update send the status again, after a notification replaced it
      */
-    public void removePlayer(UUID playerId) {
-        playerStates.remove(playerId);
+    private void forgetShownState(Player player) {
+        PlayerCombatState state = plugin.getCombatEngine().getState(player.getUniqueId());
+        if (state != null) {
+            state.resetHud();
+        }
+    }
+    
+    /**
+     * Gets the number of status messages sent
+     */
+    public long getSentMessageCount() {
+        return sentMessages;
+    }
+    
+    /**
+     * Gets the number of status refreshes that sent nothing because the shown message was still current
+     */
+    public long getSkippedMessageCount() {
+        return skippedMessages;
     }
     
     /**
      * Starts action bar updates for a player
      */
     public void startActionBarUpdates(Player player) {
-        if (configManager.isActionBarEnabled()) {
-            updatePlayerActionBar(player);
-        }
+        requestUpdate(player);
     }
     
     /**
      * Stops action bar updates for a player
      */
     public void stopActionBarUpdates(Player player) {
-        removePlayer(player.getUniqueId());
+        PlayerCombatState state = plugin.getCombatEngine().getState(player.getUniqueId());
+        if (state != null) {
+            state.resetHud();
+        }
     }
     
     /**
      * Updates the player's status and refreshes their action bar
      */
     public void updatePlayerStatus(Player player) {
-        if (configManager.isActionBarEnabled()) {
-            updatePlayerActionBar(player);
-        }
+        requestUpdate(player);
     }
     
-    /**
-     * Get or create player state
-     */
-    private ActionBarState getOrCreatePlayerState(UUID playerId) {
-        return playerStates.computeIfAbsent(playerId, k -> new ActionBarState());
+    private void requestUpdate(Player player) {
+        PlayerCombatState state = plugin.getCombatEngine().getState(player.getUniqueId());
+        if (state != null) {
+            requestUpdate(state);
+        }
     }
     
     /**
-     * Player-specific action bar state
+     * Gets the action bar transport in use
      */
-    private static class ActionBarState {
-        String lastCombatMode = "";
-        boolean lastPvPStatus = false;
-        long lastUpdate = 0;
+    public ActionBarSender getSender() {
+        return sender;
     }
 }
\ No newline at end of file
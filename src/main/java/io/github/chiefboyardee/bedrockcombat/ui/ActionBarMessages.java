@@ -0,0 +1,119 @@
+package io.github.chiefboyardee.bedrockcombat.ui;
+
+import io.github.chiefboyardee.bedrockcombat.config.ConfigSnapshot;
+import org.bukkit.ChatColor;
+
+/**
+ * Every action bar message the current configuration can produce, rendered once.
+ * A player's displayed state is a small code (platform, PvP, mode transition and the
+ * PvP seconds left), so an update is a table lookup and an unchanged state is detected
+ * by comparing codes. Countdowns above MAX_RENDERED_SECONDS (unusually long PvP
+ * timeouts) are rendered when shown instead of being kept.
+ * Immutable; rebuilt whenever a new configuration snapshot is loaded.
+ */
+final class ActionBarMessages {
+    
+    private static final int BEDROCK = 1;
+    private static final int PVP = 2;
+    private static final int TRANSITION = 4;
+    private static final int SECONDS_SHIFT = 3;
+    private static final int MAX_RENDERED_SECONDS = 300;
+    
+    private final ConfigSnapshot config;
+    private final boolean countdown;
+    private final String[] messages;
+    
+    private ActionBarMessages(ConfigSnapshot config) {
+        this.config = config;
+        this.countdown = config.showPvPStatusInActionBar() && config.getPvpTimeout() > 0;
+        int seconds = countdown ? Math.min(config.getPvpTimeout(), MAX_RENDERED_SECONDS) : 0;
+        this.messages = new String[(seconds + 1) << SECONDS_SHIFT];
+        for (int code = 0; code < messages.length; code++) {
+            messages[code] = render(config, code);
+        }
+    }
+    
+    /**
+     * Renders the messages of a configuration
+     */
+    static ActionBarMessages of(ConfigSnapshot config) {
+        return new ActionBarMessages(config);
+    }
+    
+    /**
+     * Checks if this table was rendered from the given snapshot
+     */
+    boolean isFor(ConfigSnapshot snapshot) {
+        return config == snapshot;
+    }
+    
+    /**
+     * Gets the code of a displayed state
+     * @param transition whether the combat mode changed since the previous message
+     * @param secondsLeft PvP seconds left, only shown in PvP
+     */
+    int code(boolean bedrock, boolean pvp, boolean transition, int secondsLeft) {
+        int seconds = countdown && pvp ? clampSeconds(secondsLeft) : 0;
+        return (seconds << SECONDS_SHIFT) | (bedrock ? BEDROCK : 0) | (pvp ? PVP : 0) | (transition ? TRANSITION : 0);
+    }
+    
+    /**
+     * Checks if the countdown of a player in PvP shows a different second than the code
+     */
+    boolean isCountdownStale(int code, int secondsLeft) {
+        return countdown && (code & PVP) != 0 && code >>> SECONDS_SHIFT != clampSeconds(secondsLeft);
+    }
+    
+    private static int clampSeconds(int secondsLeft) {
+        return Math.max(0, Math.min(secondsLeft, Integer.MAX_VALUE >>> SECONDS_SHIFT));
+    }
+    
+    /**
+     * Checks if a code shows Bedrock combat
+     */
+    static boolean isBedrock(int code) {
+        return (code & BEDROCK) != 0;
+    }
+    
+    String get(int code) {
+        return code < messages.length ? messages[code] : render(config, code);
+    }
+    
+    private static String render(ConfigSnapshot config, int code) {
+        boolean bedrock = (code & BEDROCK) != 0;
+        boolean inPvP = (code & PVP) != 0;
+        boolean transition = (code & TRANSITION) != 0;
+        String combatMode = bedrock ? "Bedrock" : "Java";
+        StringBuilder message = new StringBuilder();
+        
+        // Combat mode indicator
+        if (config.showCombatModeInActionBar()) {
+            String modeColor = bedrock ? "&a" : "&b";
+            message.append("&7Combat: ").append(modeColor).append(combatMode).append(" ");
+        }
+        
+        // PvP status indicator
+        if (config.showPvPStatusInActionBar() && inPvP) {
+            message.append("&c⚔ PvP Mode &c");
+            
+            // Add the seconds left until PvP mode ends
+            int secondsLeft = code >>> SECONDS_SHIFT;
+            if (secondsLeft > 0) {
+                message.append(" &e(").append(secondsLeft).append("s)");
+            }
+        }
+        
+        // Mode transition indicator
+        if (transition) {
+            message.append(" &e→ ").append(combatMode);
+        }
+        
+        // Clean up and apply color codes
+        String result = message.toString().trim();
+        if (result.isEmpty()) {
+            result = "&7Combat Ready";
+        }
+        
+        return ChatColor.translateAlternateColorCodes('&', result).intern();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package io.github.chiefboyardee.bedrockcombat.ui;
+
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.entity.Player;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.logging.Logger;
+
+/**
+ * Action bar transport, chosen once at startup for the running server software
+ */
+public interface ActionBarSender {
+    
+    /** Sender used when the server has no action bar support */
+    ActionBarSender NO_OP = new ActionBarSender() {
+        @Override
+        public void send(Player player, String message) {
+        }
+        
+        @Override
+        public boolean isSupported() {
+            return false;
+        }
+        
+        @Override
+        public String getName() {
+            return "none";
+        }
+    };
+    
+    /**
+     * Sends an already color-translated message to the player's action bar
+     */
+    void send(Player player, String message);
+    
+    /**
+     * Checks if this sender actually delivers messages
+     */
+    default boolean isSupported() {
+        return true;
+    }
+    
+    /**
+     * Gets a short name for logging and status output
+     */
+    String getName();
+    
+    /**
+     * Picks the best available transport: Paper native, then Spigot, then no-op
+     */
+    static ActionBarSender select(Logger logger) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup()
+                .findVirtual(Player.class, "sendActionBar", MethodType.methodType(void.class, String.class));
+            return new PaperSender(handle);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            // Not Paper, try the Spigot chat API
+        }
+        
+        try {
+            Class.forName("net.md_5.bungee.api.ChatMessageType");
+            return new SpigotSender();
+        } catch (ClassNotFoundException | LinkageError e) {
+            logger.fine("Spigot chat API unavailable: " + e.getMessage());
+        }
+        
+        return NO_OP;
+    }
+    
+    /**
+     * Paper's Player#sendActionBar(String), bound once as a method handle
+     */
+    final class PaperSender implements ActionBarSender {
+        
+        private final MethodHandle sendActionBar;
+        
+        PaperSender(MethodHandle sendActionBar) {
+            this.sendActionBar = sendActionBar;
+        }
+        
+        @Override
+        public void send(Player player, String message) {
+            try {
+                sendActionBar.invokeExact(player, message);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        
+        @Override
+        public String getName() {
+            return "Paper";
+        }
+    }
+    
+    /**
+     * Spigot's player.spigot().sendMessage(ACTION_BAR, component)
+     */
+    final class SpigotSender implements ActionBarSender {
+        
+        @Override
+        public void send(Player player, String message) {
+            player.spigot().sendMessage(ChatMessageType.ACTION_BAR, new TextComponent(message));
+        }
+        
+        @Override
+        public String getName() {
+            return "Spigot";
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package io.github.chiefboyardee.bedrockcombat.ui;
+
+import io.github.chiefboyardee.bedrockcombat.BedrockCombatPlugin;
+import io.github.chiefboyardee.bedrockcombat.combat.CombatMode;
+import io.github.chiefboyardee.bedrockcombat.config.ConfigManager;
+import io.github.chiefboyardee.bedrockcombat.config.ConfigSnapshot;
+import io.github.chiefboyardee.bedrockcombat.engine.PlayerCombatState;
+import io.github.chiefboyardee.bedrockcombat.performance.Operation;
+import io.github.chiefboyardee.bedrockcombat.scheduler.ScheduledWork;
+import io.github.chiefboyardee.bedrockcombat.scheduler.WorkClass;
+import org.bukkit.ChatColor;
+import org.bukkit.boss.BarColor;
+import org.bukkit.boss.BossBar;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Boss bars for PvP status, shared by every player in the same displayed state:
+ * one bar per combat mode out of PvP and one per combat mode in PvP (the seconds left
+ * are shown per player in the action bar). The mode is the one actually applied to the
+ * player, so forced world modes and stored preferences show as they play. A player stays
+ * on their bar until their state changes: PvP starts or ends, or another mode is applied;
+ * hits that only extend the PvP timeout move nobody. Changes are reported through
+ * requestUpdate, and each tick also checks the players in PvP only, so the work per
+ * tick scales with the number of changes and fighters, not with everyone online.
+ * Not thread-safe, use from the main server thread only.
+ */
+public class BossBarManager {
+    
+    private static final int NO_BAR = -1;
+    
+    // Keys are the applied mode's ordinal, offset by the number of modes while in PvP
+    private static final CombatMode[] MODES = CombatMode.values();
+    private static final int PVP_OFFSET = MODES.length;
+    
+    private static final String[] TITLES = {
+        ChatColor.translateAlternateColorCodes('&', "&bPvE &7- &bJava combat"),
+        ChatColor.translateAlternateColorCodes('&', "&aPvE &7- &aBedrock combat"),
+        ChatColor.translateAlternateColorCodes('&', "&ePvE &7- &eCustom combat"),
+        ChatColor.translateAlternateColorCodes('&', "&c⚔ PvP &7- &cJava combat"),
+        ChatColor.translateAlternateColorCodes('&', "&c⚔ PvP &7- &cBedrock combat"),
+        ChatColor.translateAlternateColorCodes('&', "&c⚔ PvP &7- &cCustom combat")
+    };
+    
+    private static final BarColor[] PVE_COLORS = { BarColor.BLUE, BarColor.GREEN, BarColor.YELLOW };
+    
+    private final BedrockCombatPlugin plugin;
+    private final ConfigManager configManager;
+    
+    // One bar per displayed state, created when the first player enters that state
+    private final BossBar[] bars = new BossBar[TITLES.length];
+    private final int[] members = new int[TITLES.length];
+    
+    // Players whose state changed since the last refresh
+    private final ArrayDeque<PlayerCombatState> changed = new ArrayDeque<>();
+    
+    // Boss bar refresh, run every tick as HUD work by the plugin's work scheduler
+    private ScheduledWork updateTask;
+    private ConfigSnapshot config;
+    private long createdBars;
+    private long moves;
+    
+    public BossBarManager(BedrockCombatPlugin plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+    }
+    
+    /**
+     * Start the boss bar system if ui.bossbar.enabled is set
+     */
+    public void start() {
+        if (!configManager.isBossBarEnabled()) {
+            return;
+        }
+        config = configManager.getSnapshot();
+        updateTask = plugin.getWorkScheduler().scheduleRepeating(WorkClass.HUD, this::refreshBossBars, 1L, 1L);
+        changed.addAll(plugin.getCombatEngine().getStates());
+        plugin.getLogger().info("Boss bar system started");
+    }
+    
+    /**
+     * Stop the boss bar system and hide every bar
+     */
+    public void stop() {
+        if (updateTask == null) {
+            return;
+        }
+        updateTask.cancel();
+        updateTask = null;
+        for (PlayerCombatState state : changed) {
+            state.setBossBarQueued(false);
+        }
+        changed.clear();
+        for (int key = 0; key < bars.length; key++) {
+            if (bars[key] != null) {
+                bars[key].removeAll();
+                bars[key] = null;
+            }
+            members[key] = 0;
+        }
+        for (PlayerCombatState state : plugin.getCombatEngine().getStates()) {
+            state.setBossBarKey(NO_BAR);
+        }
+    }
+    
+    /**
+     * Applies a reloaded configuration, rebuilding all bars
+     */
+    public void reload() {
+        stop();
+        start();
+    }
+    
+    /**
+     * Checks a player's bar on the next tick, after their PvP state, combat mode or join changed
+     */
+    public void requestUpdate(PlayerCombatState state) {
+        if (updateTask == null || state.isBossBarQueued()) {
+            return;
+        }
+        state.setBossBarQueued(true);
+        changed.add(state);
+    }
+    
+    /**
+     * Takes a player who left off their bar
+     */
+    public void removePlayer(PlayerCombatState state) {
+        if (state.getBossBarKey() != NO_BAR) {
+            move(state, NO_BAR);
+        }
+    }
+    
+    /**
+     * Runs once per tick: moves players whose state changed, then any
+     * player in PvP not yet on the PvP bar
+     */
+    private void refreshBossBars() {
+        long startNanos = System.nanoTime();
+        PlayerCombatState state;
+        while ((state = changed.poll()) != null) {
+            state.setBossBarQueued(false);
+            if (!state.isRemoved()) {
+                int key = keyOf(state);
+                if (key != state.getBossBarKey()) {
+                    move(state, key);
+                }
+            }
+        }
+        List<PlayerCombatState> fighters = plugin.getCombatEngine().getStatesInPvP();
+        for (int i = 0; i < fighters.size(); i++) {
+            PlayerCombatState fighter = fighters.get(i);
+            if (fighter.getBossBarKey() < PVP_OFFSET) {
+                int key = keyOf(fighter);
+                if (key != fighter.getBossBarKey()) {
+                    move(fighter, key);
+                }
+            }
+        }
+        plugin.getPerformanceMonitor().recordTime(Operation.BOSS_BAR_UPDATE, startNanos);
+    }
+    
+    /**
+     * Gets the bar a player belongs on, by PvP state and the combat mode applied to them
+     */
+    private static int keyOf(PlayerCombatState state) {
+        if (state.isJoinPending()) {
+            return NO_BAR;
+        }
+        CombatMode mode = state.getAppliedMode();
+        if (mode == null) {
+            // Not applied yet (join, reload): applying it requests another update
+            return state.getBossBarKey();
+        }
+        return state.isInPvP() ? PVP_OFFSET + mode.ordinal() : mode.ordinal();
+    }
+    
+    private void move(PlayerCombatState state, int key) {
+        Player player = (Player) state.getHandle();
+        int oldKey = state.getBossBarKey();
+        if (oldKey != NO_BAR && bars[oldKey] != null) {
+            bars[oldKey].removePlayer(player);
+            members[oldKey]--;
+        }
+        state.setBossBarKey(key);
+        if (key == NO_BAR) {
+            return;
+        }
+        
+        if (bars[key] == null) {
+            bars[key] = open(key);
+        }
+        bars[key].addPlayer(player);
+        members[key]++;
+        moves++;
+    }
+    
+    /**
+     * Creates the bar of a state; bars stay until the system is stopped
+     */
+    private BossBar open(int key) {
+        BarColor color = key >= PVP_OFFSET ? config.getBossBarPvPColor() : PVE_COLORS[key];
+        BossBar bar = plugin.getServer().createBossBar(TITLES[key], color, config.getBossBarStyle());
+        bar.setProgress(1.0);
+        createdBars++;
+        return bar;
+    }
+    
+    /**
+     * Checks if boss bars are shown
+     */
+    public boolean isRunning() {
+        return updateTask != null;
+    }
+    
+    /**
+     * Gets the number of bars currently shown, one per displayed state with players in it
+     */
+    public int getBarCount() {
+        int shown = 0;
+        for (int count : members) {
+            if (count > 0) {
+                shown++;
+            }
+        }
+        return shown;
+    }
+    
+    /**
+     * Gets the number of players currently shown a bar
+     */
+    public int getViewerCount() {
+        int viewers = 0;
+        for (int count : members) {
+            viewers += count;
+        }
+        return viewers;
+    }
+    
+    /**
+     * Gets the number of boss bars allocated since startup
+     */
+    public long getCreatedBarCount() {
+        return createdBars;
+    }
+    
+    /**
+     * Gets the number of times a player was moved to another bar
+     */
+    public long getMoveCount() {
+        return moves;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,290 @@
+package io.github.chiefboyardee.bedrockcombat.world;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Spatial hash of online players over chunk-sized cells, per world.
+ * Players are only re-bucketed when they cross a cell boundary; radius queries
+ * visit the covering cells, compare squared distances and allocate nothing.
+ * Not thread-safe, use from the main server thread only.
+ */
+public class PlayerSpatialIndex {
+    
+    /** Cells are 16x16 blocks, the size of a chunk */
+    public static final int CELL_SHIFT = 4;
+    
+    private final Map<World, CellMap> grids = new IdentityHashMap<>();
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    
+    // Reused for position reads during queries
+    private final Location scratch = new Location(null, 0, 0, 0);
+    
+    /**
+     * Adds a player at their current location, or moves them there
+     */
+    public void add(Player player) {
+        update(player, player.getLocation(scratch));
+    }
+    
+    /**
+     * Moves a player to the cell of the given location; a player already
+     * in that cell is left alone, so this is cheap to call on every move
+     * @return true if the player changed cell
+     */
+    public boolean update(Player player, Location to) {
+        World world = to.getWorld();
+        int cellX = to.getBlockX() >> CELL_SHIFT;
+        int cellZ = to.getBlockZ() >> CELL_SHIFT;
+        
+        Entry entry = entries.get(player.getUniqueId());
+        if (entry == null) {
+            entry = new Entry(player);
+            entries.put(player.getUniqueId(), entry);
+        } else if (entry.world == world && entry.cellX == cellX && entry.cellZ == cellZ) {
+            return false;
+        } else {
+            unlink(entry);
+        }
+        
+        entry.player = player;
+        entry.world = world;
+        entry.cellX = cellX;
+        entry.cellZ = cellZ;
+        grids.computeIfAbsent(world, w -> new CellMap()).getOrCreate(cellKey(cellX, cellZ)).add(entry);
+        return true;
+    }
+    
+    /**
+     * Removes a player from the index
+     */
+    public void remove(UUID playerId) {
+        Entry entry = entries.remove(playerId);
+        if (entry != null) {
+            unlink(entry);
+        }
+    }
+    
+    /**
+     * Collects the players within the radius of a point, excluding the given player
+     * @return the number of players added to the output
+     */
+    public int queryRadius(World world, double x, double y, double z, double radius,
+                           UUID excludeId, Collection<? super Player> out) {
+        CellMap grid = grids.get(world);
+        if (grid == null) {
+            return 0;
+        }
+        
+        double radiusSquared = radius * radius;
+        int minCellX = ((int) Math.floor(x - radius)) >> CELL_SHIFT;
+        int maxCellX = ((int) Math.floor(x + radius)) >> CELL_SHIFT;
+        int minCellZ = ((int) Math.floor(z - radius)) >> CELL_SHIFT;
+        int maxCellZ = ((int) Math.floor(z + radius)) >> CELL_SHIFT;
+        
+        int found = 0;
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                Cell cell = grid.get(cellKey(cellX, cellZ));
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size; i++) {
+                    Entry entry = cell.entries[i];
+                    if (entry.player.getUniqueId().equals(excludeId)) {
+                        continue;
+                    }
+                    Location location = entry.player.getLocation(scratch);
+                    double dx = location.getX() - x;
+                    double dy = location.getY() - y;
+                    double dz = location.getZ() - z;
+                    if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+                        out.add(entry.player);
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Gets the number of players in the index
+     */
+    public int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Gets the number of non-empty cells across all worlds
+     */
+    public int getCellCount() {
+        int cells = 0;
+        for (CellMap grid : grids.values()) {
+            cells += grid.size;
+        }
+        return cells;
+    }
+    
+    /**
+     * Removes all players
+     */
+    public void clear() {
+        entries.clear();
+        grids.clear();
+    }
+    
+    private void unlink(Entry entry) {
+        CellMap grid = grids.get(entry.world);
+        if (grid == null) {
+            return;
+        }
+        long key = cellKey(entry.cellX, entry.cellZ);
+        Cell cell = grid.get(key);
+        if (cell != null && cell.remove(entry) && cell.size == 0) {
+            grid.remove(key);
+            if (grid.size == 0) {
+                grids.remove(entry.world);
+            }
+        }
+    }
+    
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Indexed player and the cell they are in
+     */
+    private static final class Entry {
+        Player player;
+        World world;
+        int cellX;
+        int cellZ;
+        int slot;
+        
+        Entry(Player player) {
+            this.player = player;
+        }
+    }
+    
+    /**
+     * Players in one cell, kept dense with swap-remove
+     */
+    private static final class Cell {
+        Entry[] entries = new Entry[4];
+        int size;
+        
+        void add(Entry entry) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entry.slot = size;
+            entries[size++] = entry;
+        }
+        
+        boolean remove(Entry entry) {
+            int slot = entry.slot;
+            if (slot >= size || entries[slot] != entry) {
+                return false;
+            }
+            Entry last = entries[--size];
+            entries[slot] = last;
+            last.slot = slot;
+            entries[size] = null;
+            return true;
+        }
+    }
+    
+    /**
+     * Open-addressing map from cell key to cell, so lookups never box a long
+     */
+    private static final class CellMap {
+        long[] keys = new long[16];
+        Cell[] cells = new Cell[16];
+        int size;
+        
+        Cell get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; cells[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return cells[i];
+                }
+            }
+            return null;
+        }
+        
+        Cell getOrCreate(long key) {
+            Cell cell = get(key);
+            if (cell == null) {
+                if ((size + 1) * 4 > keys.length * 3) {
+                    resize();
+                }
+                cell = new Cell();
+                insert(key, cell);
+                size++;
+            }
+            return cell;
+        }
+        
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (cells[i] != null && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (cells[i] == null) {
+                return;
+            }
+            cells[i] = null;
+            size--;
+            
+            // Backward-shift the following run so probes stay unbroken
+            int gap = i;
+            for (int j = (i + 1) & mask; cells[j] != null; j = (j + 1) & mask) {
+                int home = hash(keys[j]) & mask;
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    cells[gap] = cells[j];
+                    cells[j] = null;
+                    gap = j;
+                }
+            }
+        }
+        
+        private void insert(long key, Cell cell) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (cells[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            cells[i] = cell;
+        }
+        
+        private void resize() {
+            long[] oldKeys = keys;
+            Cell[] oldCells = cells;
+            keys = new long[oldKeys.length * 2];
+            cells = new Cell[oldCells.length * 2];
+            for (int i = 0; i < oldCells.length; i++) {
+                if (oldCells[i] != null) {
+                    insert(oldKeys[i], oldCells[i]);
+                }
+            }
+        }
+        
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.chiefboyardee.bedrockcombat.world;
+
+import io.github.chiefboyardee.bedrockcombat.config.ConfigManager;
+import io.github.chiefboyardee.bedrockcombat.config.WorldCombatPolicy;
+import org.bukkit.World;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Combat policy of every loaded world, resolved once per world load or config reload.
+ * Not thread-safe, use from the main server thread only.
+ */
+public class WorldPolicyTable {
+    
+    private final ConfigManager configManager;
+    
+    // World instances are stable while loaded, so identity lookups are enough
+    private final Map<World, WorldCombatPolicy> worldPolicies = new IdentityHashMap<>();
+    
+    public WorldPolicyTable(ConfigManager configManager) {
+        this.configManager = configManager;
+    }
+    
+    /**
+     * Resolves the policies of all given worlds from the current configuration
+     */
+    public void rebuild(Collection<World> worlds) {
+        worldPolicies.clear();
+        for (World world : worlds) {
+            loadWorld(world);
+        }
+    }
+    
+    /**
+     * Resolves and stores the policy of a newly loaded world
+     */
+    public WorldCombatPolicy loadWorld(World world) {
+        WorldCombatPolicy policy = configManager.getSnapshot().getWorldPolicy(world.getName());
+        worldPolicies.put(world, policy);
+        return policy;
+    }
+    
+    /**
+     * Drops the policy of an unloaded world
+     */
+    public void unloadWorld(World world) {
+        worldPolicies.remove(world);
+    }
+    
+    /**
+     * Gets the policy of a world, resolving it if the world was never seen
+     */
+    public WorldCombatPolicy getPolicy(World world) {
+        WorldCombatPolicy policy = worldPolicies.get(world);
+        return policy != null ? policy : loadWorld(world);
+    }
+    
+    /**
+     * Gets the number of worlds with a resolved policy
+     */
+    public int getWorldCount() {
+        return worldPolicies.size();
+    }
+}